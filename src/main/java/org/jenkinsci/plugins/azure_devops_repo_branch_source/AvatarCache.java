@@ -0,0 +1,423 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ProxyConfiguration;
+import hudson.Util;
+import hudson.model.UnprotectedRootAction;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import jenkins.model.Jenkins;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+
+import javax.imageio.ImageIO;
+import javax.servlet.http.HttpServletResponse;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the avatars of organizations from {@code JENKINS_HOME} so that pages listing many organization folders do
+ * not each send the browser to the remote host for every avatar. An avatar is fetched once, resized to each of the
+ * standard icon sizes and only fetched again, conditionally on its {@code ETag}, once it is due to be checked.
+ * Fetches happen in the background, a request never waits on the remote host: until an avatar has been fetched the
+ * browser is redirected to the remote avatar. A failed fetch is recorded and not retried for a while.
+ */
+@Extension
+public class AvatarCache implements UnprotectedRootAction {
+    /**
+     * The URL that the avatars are served from.
+     */
+    static final String URL_NAME = "azure-devops-avatar";
+    /**
+     * The standard icon sizes.
+     */
+    static final int[] SIZES = {16, 24, 32, 48};
+    private static final Logger LOGGER = Logger.getLogger(AvatarCache.class.getName());
+    /**
+     * How long a cached avatar is served before checking whether it has changed.
+     */
+    private static final long refreshMillis = TimeUnit.HOURS.toMillis(Math.max(0,
+            Integer.getInteger(AvatarCache.class.getName() + ".refreshHours", 24)));
+    /**
+     * How long to wait after a failed fetch before fetching the avatar again.
+     */
+    private static final long retryMillis = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(AvatarCache.class.getName() + ".retryMinutes", 15)));
+    /**
+     * How long browsers can keep an avatar without asking again.
+     */
+    private static final int maxAgeSeconds = Math.max(0,
+            Integer.getInteger(AvatarCache.class.getName() + ".maxAgeSeconds", 3600));
+    /**
+     * The keys are the digests of the remote avatar URLs, which keeps them to characters that are safe in file names.
+     */
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{32}");
+    /**
+     * The avatars keyed by the digest of their remote URL.
+     */
+    private static final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    /**
+     * The threads that fetch avatars.
+     */
+    private static final ExecutorService fetchExecutor;
+
+    static {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), AvatarCache.class.getName() + ".fetch"));
+        executor.allowCoreThreadTimeOut(true);
+        fetchExecutor = executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getUrlName() {
+        return URL_NAME;
+    }
+
+    /**
+     * Returns the path, relative to the context path, that an avatar is served from at the requested size. Only
+     * avatars that have been asked for through this method are ever served, so the endpoint cannot be used to fetch
+     * anything else.
+     *
+     * @param avatarUrl the remote avatar URL.
+     * @param size      the width and height of the icon.
+     * @return the path or {@code null} if the size is not one of the standard icon sizes.
+     */
+    @CheckForNull
+    static String pathOf(@NonNull String avatarUrl, @NonNull String size) {
+        int pixels = toSize(size);
+        if (pixels == -1) {
+            return null;
+        }
+        String key = Util.getDigestOf(avatarUrl);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            Entry created = new Entry(new File(new File(Jenkins.getActiveInstance().getRootDir(),
+                    "azure-devops-avatars"), key), avatarUrl);
+            entry = entries.putIfAbsent(key, created);
+            if (entry == null) {
+                entry = created;
+                entry.register();
+            }
+        }
+        return "/" + URL_NAME + "/" + key + "/" + pixels + ".png";
+    }
+
+    /**
+     * Serves {@code /<key>/<size>.png}.
+     *
+     * @param req the request.
+     * @param rsp the response.
+     * @throws IOException if the avatar could not be sent.
+     */
+    @SuppressWarnings("unused") // stapler
+    public void doDynamic(StaplerRequest req, StaplerResponse rsp) throws IOException {
+        String[] path = StringUtils.split(req.getRestOfPath(), '/');
+        if (path.length != 2 || !KEY.matcher(path[0]).matches() || !path[1].endsWith(".png")) {
+            rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        int size = toSize(StringUtils.removeEnd(path[1], ".png"));
+        Entry entry = size == -1 ? null : entry(path[0]);
+        if (entry == null) {
+            rsp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        File image = entry.image(size);
+        if (image == null) {
+            // not fetched yet or could not fetch it, let the browser try
+            rsp.sendRedirect2(entry.remoteUrl(size));
+            return;
+        }
+        String etag = "\"" + path[0] + "-" + size + "-" + image.lastModified() + "\"";
+        rsp.setHeader("Cache-Control", "public, max-age=" + maxAgeSeconds);
+        rsp.setHeader("ETag", etag);
+        if (etag.equals(req.getHeader("If-None-Match"))) {
+            rsp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        rsp.setContentType("image/png");
+        rsp.setContentLength((int) image.length());
+        Files.copy(image.toPath(), rsp.getOutputStream());
+    }
+
+    /**
+     * Gets the avatar for a key, loading it from disk if it was registered before a restart.
+     *
+     * @param key the key.
+     * @return the avatar or {@code null} if it was never registered.
+     */
+    @CheckForNull
+    private static Entry entry(@NonNull String key) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        File dir = new File(new File(Jenkins.getActiveInstance().getRootDir(), "azure-devops-avatars"), key);
+        File source = new File(dir, "source.txt");
+        if (!source.isFile()) {
+            return null;
+        }
+        String avatarUrl = FileUtils.readFileToString(source, "UTF-8").trim();
+        if (!key.equals(Util.getDigestOf(avatarUrl))) {
+            return null;
+        }
+        entry = entries.putIfAbsent(key, new Entry(dir, avatarUrl));
+        return entry == null ? entries.get(key) : entry;
+    }
+
+    /**
+     * Parses an icon size.
+     *
+     * @param size the size as either {@code N} or {@code NxN}.
+     * @return the size or {@code -1} if not one of the standard icon sizes.
+     */
+    private static int toSize(@NonNull String size) {
+        String width = StringUtils.substringBefore(size, "x");
+        for (int standard : SIZES) {
+            if (Integer.toString(standard).equals(width)) {
+                return standard;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The cached copies of one avatar.
+     */
+    private static final class Entry {
+        /**
+         * Where the copies are kept.
+         */
+        @NonNull
+        private final File dir;
+        /**
+         * The remote avatar URL.
+         */
+        @NonNull
+        private final String avatarUrl;
+        /**
+         * Set while a fetch is pending so that only one is queued at a time.
+         */
+        private final AtomicBoolean fetching = new AtomicBoolean();
+
+        Entry(@NonNull File dir, @NonNull String avatarUrl) {
+            this.dir = dir;
+            this.avatarUrl = avatarUrl;
+        }
+
+        /**
+         * Records the remote URL so that the avatar can still be served after a restart.
+         */
+        synchronized void register() {
+            File source = new File(dir, "source.txt");
+            if (source.isFile()) {
+                return;
+            }
+            try {
+                FileUtils.writeStringToFile(source, avatarUrl, "UTF-8");
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Could not record avatar " + avatarUrl, e);
+            }
+        }
+
+        /**
+         * Returns the remote URL of the avatar at a size.
+         *
+         * @param size the size.
+         * @return the remote URL.
+         */
+        @NonNull
+        String remoteUrl(int size) {
+            return avatarUrl + (avatarUrl.contains("?") ? "&s=" : "?s=") + size;
+        }
+
+        /**
+         * Gets the cached copy at a size, starting a fetch of the avatar in the background if it is not cached or is
+         * due to be checked, unless the last fetch failed recently.
+         *
+         * @param size the size.
+         * @return the cached copy or {@code null} if it has not been fetched.
+         */
+        @CheckForNull
+        File image(int size) {
+            File image = new File(dir, size + ".png");
+            final File etag = new File(dir, "etag.txt");
+            final File failed = new File(dir, "failed.txt");
+            long now = System.currentTimeMillis();
+            if ((!image.isFile() || now - etag.lastModified() >= refreshMillis)
+                    && now - failed.lastModified() >= retryMillis
+                    && fetching.compareAndSet(false, true)) {
+                fetchExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            fetch(etag, failed);
+                        } finally {
+                            fetching.set(false);
+                        }
+                    }
+                });
+            }
+            return image.isFile() ? image : null;
+        }
+
+        /**
+         * Fetches the avatar, recording a failure so that it is not retried on every request.
+         *
+         * @param etag   the file holding the {@code ETag} of the last fetch.
+         * @param failed the file whose timestamp is when a fetch last failed.
+         */
+        private void fetch(@NonNull File etag, @NonNull File failed) {
+            try {
+                refresh(etag);
+                Files.deleteIfExists(failed.toPath());
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.FINE, "Could not fetch avatar " + avatarUrl, e);
+                try {
+                    Files.createDirectories(dir.toPath());
+                    FileUtils.touch(failed);
+                } catch (IOException x) {
+                    LOGGER.log(Level.FINE, "Could not record failure to fetch avatar " + avatarUrl, x);
+                }
+            }
+        }
+
+        /**
+         * Fetches the avatar unless it has not changed since it was last fetched and stores it at each size.
+         *
+         * @param etag the file holding the {@code ETag} of the last fetch, its timestamp is when it was last checked.
+         * @throws IOException if the avatar could not be fetched or stored.
+         */
+        private void refresh(@NonNull File etag) throws IOException {
+            String previous = etag.isFile() ? FileUtils.readFileToString(etag, "UTF-8") : "";
+            boolean complete = !previous.isEmpty();
+            for (int size : SIZES) {
+                complete = complete && new File(dir, size + ".png").isFile();
+            }
+            // ask for the largest size and scale down from there
+            URLConnection connection = ProxyConfiguration.open(new URL(remoteUrl(SIZES[SIZES.length - 1])));
+            connection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(10));
+            connection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(10));
+            if (complete) {
+                connection.setRequestProperty("If-None-Match", previous);
+            }
+            if (connection instanceof HttpURLConnection) {
+                int status = ((HttpURLConnection) connection).getResponseCode();
+                if (status == HttpURLConnection.HTTP_NOT_MODIFIED && complete) {
+                    if (!etag.setLastModified(System.currentTimeMillis())) {
+                        throw new IOException("Could not update " + etag);
+                    }
+                    return;
+                }
+                if (status != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("HTTP " + status + " fetching " + avatarUrl);
+                }
+            }
+            BufferedImage original;
+            try (InputStream in = connection.getInputStream()) {
+                original = ImageIO.read(in);
+            }
+            if (original == null) {
+                throw new IOException("Not an image: " + avatarUrl);
+            }
+            Files.createDirectories(dir.toPath());
+            for (int size : SIZES) {
+                File tmp = new File(dir, size + ".png.tmp");
+                if (!ImageIO.write(resize(original, size), "png", tmp)) {
+                    throw new IOException("Could not write " + tmp);
+                }
+                Files.move(tmp.toPath(), new File(dir, size + ".png").toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            // written last, so a missing size or ETag means the copies are not complete
+            FileUtils.writeStringToFile(etag, StringUtils.defaultString(connection.getHeaderField("ETag")), "UTF-8");
+        }
+
+        /**
+         * Scales an image to a square icon.
+         *
+         * @param original the image.
+         * @param size     the width and height of the icon.
+         * @return the icon.
+         */
+        @NonNull
+        private static BufferedImage resize(@NonNull BufferedImage original, int size) {
+            BufferedImage result = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = result.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.drawImage(original, 0, 0, size, size, null);
+            } finally {
+                g.dispose();
+            }
+            return result;
+        }
+    }
+}
@@ -74,8 +74,8 @@ public class AzureDevOpsRepoBuildStatusNotification {
                         Result result = build.getResult();
                         String revisionToNotify = resolveHeadCommit(revision);
                         SCMHead head = revision.getHead();
-                        List<AbstractGitHubNotificationStrategy> strategies = new AzureDevOpsRepoSCMSourceContext(null, SCMHeadObserver.none())
-                                .withTraits(((AzureDevOpsRepoSCMSource) src).getTraits()).notificationStrategies();
+                        List<AbstractGitHubNotificationStrategy> strategies =
+                                ((AzureDevOpsRepoSCMSource) src).getTraitsSnapshot().notificationStrategies();
                         for (AbstractGitHubNotificationStrategy strategy : strategies) {
                             // TODO allow strategies to combine/cooperate on a notification
                             AzureDevOpsRepoNotificationContext notificationContext = AzureDevOpsRepoNotificationContext.build(null, build,
@@ -155,9 +155,7 @@ public class AzureDevOpsRepoBuildStatusNotification {
         SCMSource src = SCMSource.SourceByItem.findSource(job);
         if (src instanceof AzureDevOpsRepoSCMSource) {
             AzureDevOpsRepoSCMSource source = (AzureDevOpsRepoSCMSource) src;
-            if (new AzureDevOpsRepoSCMSourceContext(null, SCMHeadObserver.none())
-                    .withTraits(source.getTraits())
-                    .notificationsDisabled()) {
+            if (source.getTraitsSnapshot().notificationsDisabled()) {
                 return null;
             }
             if (source.getScanCredentialsId() != null) {
@@ -203,8 +201,7 @@ public class AzureDevOpsRepoBuildStatusNotification {
             if (!(head instanceof PullRequestSCMHead)) {
                 return;
             }
-            final AzureDevOpsRepoSCMSourceContext sourceContext = new AzureDevOpsRepoSCMSourceContext(null, SCMHeadObserver.none())
-                    .withTraits(((AzureDevOpsRepoSCMSource) source).getTraits());
+            final TraitsSnapshot sourceContext = ((AzureDevOpsRepoSCMSource) source).getTraitsSnapshot();
             if (sourceContext.notificationsDisabled()) {
                 return;
             }
@@ -32,6 +32,7 @@ import jenkins.scm.api.metadata.AvatarMetadataAction;
 import org.apache.commons.lang.StringUtils;
 import org.kohsuke.github.GHUser;
 import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest;
 
 import java.io.IOException;
 import java.io.ObjectStreamException;
@@ -83,6 +84,9 @@ public class AzureDevOpsRepoOrgMetadataAction extends AvatarMetadataAction {
         } else {
             String[] xy = size.split("x");
             if (xy.length == 0) return avatar;
+            StaplerRequest req = Stapler.getCurrentRequest();
+            String cached = req == null ? null : AvatarCache.pathOf(avatar, size);
+            if (cached != null) return req.getContextPath() + cached;
             if (avatar.contains("?")) return avatar + "&s=" + xy[0];
             else return avatar + "?s=" + xy[0];
         }
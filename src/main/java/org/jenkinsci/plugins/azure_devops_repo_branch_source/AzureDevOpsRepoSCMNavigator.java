@@ -38,6 +38,7 @@ import hudson.Util;
 import hudson.console.HyperlinkNote;
 import hudson.model.Action;
 import hudson.model.Item;
+import hudson.model.ItemGroup;
 import hudson.model.TaskListener;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
@@ -911,94 +912,100 @@ public class AzureDevOpsRepoSCMNavigator extends SCMNavigator {
             try {
                 SourceFactory sourceFactory = new SourceFactory(request);
                 WitnessImpl witness = new WitnessImpl(listener);
-
-                if (!github.isAnonymous()) {
-                    GHMyself myself;
-                    try {
-                        // Requires an authenticated access
-                        myself = github.getMyself();
-                    } catch (RateLimitExceededException rle) {
-                        throw new AbortException(rle.getMessage());
+                RepositoryVisitor visitor =
+                        new RepositoryVisitor(request, sourceFactory, witness, github, listener,
+                                RepositoryVisitor.PARALLELISM);
+                RepositoryWatermarks watermarks = RepositoryWatermarks.load(observer.getContext(), getId(), traits);
+                Set<String> listed = new HashSet<>();
+
+                OwnerCache.Owner owner = OwnerCache.get(apiUri, credentials, repoOwner);
+                GHPerson person = null;
+                if (owner == null) {
+                    person = lookupOwner(github);
+                    if (person == null) {
+                        throw new AbortException(
+                                repoOwner + " does not correspond to a known GitHub User Account or Organization");
                     }
-                    if (myself != null && repoOwner.equalsIgnoreCase(myself.getLogin())) {
-                        listener.getLogger()
-                                .println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                                        "Looking up repositories of myself %s", repoOwner
-                                )));
-                        for (GHRepository repo : myself.listRepositories(100)) {
-                            Connector.checkApiRateLimit(listener, github);
-                            if (!repo.getOwnerName().equals(repoOwner)) {
-                                continue; // ignore repos in other orgs when using GHMyself
-                            }
-                            if (request.process(repo.getName(), sourceFactory, null, witness)) {
+                    owner = OwnerCache.put(apiUri, credentials, repoOwner, person);
+                }
+                Iterable<GHRepository> repositories = null;
+                try {
+                    RepositoryQuery query = RepositoryQuery.of(request, traits);
+                    if (query != null) {
+                        Connector.checkApiRateLimit(listener, github);
+                        repositories = query.search(github, owner, listener);
+                        if (repositories == null) {
+                            throw new AbortException(String.format(
+                                    "Could not search for the repositories of %s, which is the only way to filter "
+                                            + "them by topic", repoOwner));
+                        }
+                        repositories = query.withExisting(github, owner, repositories,
+                                projectNamesOf(observer.getContext()), listener);
+                    }
+                    if (repositories == null) {
+                        switch (owner.getKind()) {
+                            case MYSELF:
                                 listener.getLogger()
                                         .println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                                                "%d repositories were processed (query completed)", witness.getCount()
+                                                "Looking up repositories of myself %s", repoOwner
                                         )));
-                            }
+                                repositories = (person != null ? (GHMyself) person : github.getMyself())
+                                        .listRepositories(100);
+                                break;
+                            case ORGANIZATION:
+                                listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
+                                        "Looking up repositories of organization %s", repoOwner
+                                )));
+                                repositories = (person != null
+                                        ? (GHOrganization) person
+                                        : github.getOrganization(owner.getLogin())).listRepositories(100);
+                                break;
+                            default:
+                                listener.getLogger().format("Looking up repositories of user %s%n%n", repoOwner);
+                                Connector.checkApiRateLimit(listener, github);
+                                repositories = (person != null ? (GHUser) person : github.getUser(owner.getLogin()))
+                                        .listRepositories(100);
+                                break;
                         }
-                        listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                                "%d repositories were processed", witness.getCount()
-                        )));
-                        return;
                     }
-                }
-
-                GHOrganization org = null;
-                try {
-                    org = github.getOrganization(repoOwner);
                 } catch (RateLimitExceededException rle) {
                     throw new AbortException(rle.getMessage());
                 } catch (FileNotFoundException fnf) {
-                    // may be an user... ok to ignore
-                }
-                if (org != null && repoOwner.equalsIgnoreCase(org.getLogin())) {
-                    listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                            "Looking up repositories of organization %s", repoOwner
-                    )));
-                    for (GHRepository repo : org.listRepositories(100)) {
-                        Connector.checkApiRateLimit(listener, github);
-                        if (request.process(repo.getName(), sourceFactory, null, witness)) {
-                            listener.getLogger()
-                                    .println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                                            "%d repositories were processed (query completed)", witness.getCount()
-                                    )));
-                        }
-                    }
-                    listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                            "%d repositories were processed", witness.getCount()
-                    )));
-                    return;
+                    // renamed or deleted since we cached it, find out what it is next time
+                    OwnerCache.invalidate(apiUri, credentials, repoOwner);
+                    throw new AbortException(
+                            repoOwner + " does not correspond to a known GitHub User Account or Organization");
                 }
-
-                GHUser user = null;
                 try {
-                    user = github.getUser(repoOwner);
-                } catch (RateLimitExceededException rle) {
-                    throw new AbortException(rle.getMessage());
-                } catch (FileNotFoundException fnf) {
-                    // the user may not exist... ok to ignore
-                }
-                if (user != null && repoOwner.equalsIgnoreCase(user.getLogin())) {
-                    listener.getLogger().format("Looking up repositories of user %s%n%n", repoOwner);
-                    Connector.checkApiRateLimit(listener, github);
-                    for (GHRepository repo : user.listRepositories(100)) {
+                    for (GHRepository repo : repositories) {
                         Connector.checkApiRateLimit(listener, github);
-                        if (request.process(repo.getName(), sourceFactory, null, witness)) {
-                            listener.getLogger()
-                                    .println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                                            "%d repositories were processed (query completed)", witness.getCount()
-                                    )));
+                        if (owner.getKind() == OwnerCache.Kind.MYSELF && !repo.getOwnerName().equals(repoOwner)) {
+                            continue; // ignore repos in other orgs when using GHMyself
+                        }
+                        if (request.isExcluded(repo)) {
+                            continue; // the listing tells us there is nothing worth scanning
                         }
+                        listed.add(repo.getName());
+                        // the source of the repository can use what we have already fetched and validated
+                        RepositorySession.prime(github, repo);
+                        if (visitor.visit(repo.getName(), watermarks.recognize(repo, sourceId(repo)))) {
+                            break;
+                        }
+                    }
+                    boolean completed = visitor.finish();
+                    updateWatermarks(watermarks, completed, includes, listed);
+                    if (completed) {
+                        listener.getLogger()
+                                .println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
+                                        "%d repositories were processed (query completed)", witness.getCount()
+                                )));
                     }
-                    listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                            "%d repositories were processed", witness.getCount()
-                    )));
-                    return;
+                } finally {
+                    visitor.close();
                 }
-
-                throw new AbortException(
-                        repoOwner + " does not correspond to a known GitHub User Account or Organization");
+                listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
+                        "%d repositories were processed", witness.getCount()
+                )));
             } finally {
                 request.close();
             }
@@ -1007,6 +1014,111 @@ public class AzureDevOpsRepoSCMNavigator extends SCMNavigator {
         }
     }
 
+    /**
+     * Returns the names of the projects that the owner already has.
+     *
+     * @param owner the owner.
+     * @return the names of the projects.
+     */
+    @NonNull
+    private static Set<String> projectNamesOf(@NonNull SCMSourceOwner owner) {
+        Set<String> names = new HashSet<>();
+        if (owner instanceof ItemGroup) {
+            for (Object item : ((ItemGroup<?>) owner).getItems()) {
+                names.add(((Item) item).getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Checks that a single repository has the topics that the navigator is configured to require, which the
+     * repository details do not tell us.
+     *
+     * @param request    the request.
+     * @param repository the repository.
+     * @return {@code true} if the repository has the topics or no topics are required.
+     * @throws IOException if the topics could not be fetched.
+     */
+    private boolean hasTopics(@NonNull AzureDevOpsRepoSCMNavigatorRequest request,
+                              @NonNull GHRepository repository) throws IOException {
+        RepositoryQuery query = RepositoryQuery.of(request, traits);
+        return query == null || query.matches(repository);
+    }
+
+    /**
+     * Works out whether {@link #repoOwner} is the authenticated user, an organization or some other user.
+     *
+     * @param github the connection.
+     * @return the owner or {@code null} if it is not a known user or organization.
+     * @throws IOException if the owner could not be looked up.
+     */
+    @CheckForNull
+    private GHPerson lookupOwner(@NonNull GitHub github) throws IOException {
+        if (!github.isAnonymous()) {
+            GHMyself myself;
+            try {
+                // Requires an authenticated access
+                myself = github.getMyself();
+            } catch (RateLimitExceededException rle) {
+                throw new AbortException(rle.getMessage());
+            }
+            if (myself != null && repoOwner.equalsIgnoreCase(myself.getLogin())) {
+                return myself;
+            }
+        }
+        GHOrganization org = null;
+        try {
+            org = github.getOrganization(repoOwner);
+        } catch (RateLimitExceededException rle) {
+            throw new AbortException(rle.getMessage());
+        } catch (FileNotFoundException fnf) {
+            // may be an user... ok to ignore
+        }
+        if (org != null && repoOwner.equalsIgnoreCase(org.getLogin())) {
+            return org;
+        }
+        GHUser user = null;
+        try {
+            user = github.getUser(repoOwner);
+        } catch (RateLimitExceededException rle) {
+            throw new AbortException(rle.getMessage());
+        } catch (FileNotFoundException fnf) {
+            // the user may not exist... ok to ignore
+        }
+        if (user != null && repoOwner.equalsIgnoreCase(user.getLogin())) {
+            return user;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the id of the source of a repository.
+     *
+     * @param repo the repository.
+     * @return the {@link SCMSource#getId()} that {@link SourceFactory} will give the source of the repository.
+     */
+    private String sourceId(GHRepository repo) {
+        return getId() + "::" + repo.getName();
+    }
+
+    /**
+     * Saves what was learned about the repositories by a scan.
+     *
+     * @param watermarks the watermarks of the repositories.
+     * @param completed  {@code true} if the scan stopped before listing all the repositories.
+     * @param includes   the repositories that the scan was limited to or {@code null} for all.
+     * @param listed     the names of the repositories that were listed.
+     */
+    private static void updateWatermarks(RepositoryWatermarks watermarks, boolean completed,
+                                            @CheckForNull Set<String> includes, Set<String> listed) {
+        if (!completed && includes == null) {
+            // anything we did not list has been deleted, renamed or moved
+            watermarks.retainAll(listed);
+        }
+        watermarks.save();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1053,87 +1165,54 @@ public class AzureDevOpsRepoSCMNavigator extends SCMNavigator {
                     listener.getLogger()
                             .format("Connecting to %s using %s%n", apiUri == null ? AzureDevOpsRepoSCMSource.GITHUB_URL : apiUri,
                                     CredentialsNameProvider.name(credentials));
-                    GHMyself myself;
-                    try {
-                        // Requires an authenticated access
-                        myself = github.getMyself();
-                    } catch (RateLimitExceededException rle) {
-                        throw new AbortException(rle.getMessage());
-                    }
-                    if (myself != null && repoOwner.equalsIgnoreCase(myself.getLogin())) {
-                        listener.getLogger().format("Looking up %s repository of myself %s%n%n", sourceName, repoOwner);
-                        GHRepository repo = myself.getRepository(sourceName);
-                        if (repo != null && repo.getOwnerName().equals(repoOwner)) {
-                            if (request.process(repo.getName(), sourceFactory, null, witness)) {
-                                listener.getLogger()
-                                        .println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                                                "%d repositories were processed (query completed)", witness.getCount()
-                                        )));
-                            }
-                        }
-                        listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                                "%d repositories were processed", witness.getCount()
-                        )));
-                        return;
-                    }
                 } else {
                     listener.getLogger().format("Connecting to %s with no credentials, anonymous access%n",
                             apiUri == null ? AzureDevOpsRepoSCMSource.GITHUB_URL : apiUri);
                 }
 
-                GHOrganization org = null;
-                try {
-                    org = github.getOrganization(repoOwner);
-                } catch (RateLimitExceededException rle) {
-                    throw new AbortException(rle.getMessage());
-                } catch (FileNotFoundException fnf) {
-                    // may be an user... ok to ignore
-                }
-                if (org != null && repoOwner.equalsIgnoreCase(org.getLogin())) {
-                    listener.getLogger()
-                            .format("Looking up %s repository of organization %s%n%n", sourceName, repoOwner);
-                    GHRepository repo = org.getRepository(sourceName);
-                    if (repo != null) {
-                        if (request.process(repo.getName(), sourceFactory, null, witness)) {
-                            listener.getLogger()
-                                    .println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                                            "%d repositories were processed (query completed)", witness.getCount()
-                                    )));
-                        }
+                OwnerCache.Owner owner = OwnerCache.get(apiUri, credentials, repoOwner);
+                if (owner == null) {
+                    GHPerson person = lookupOwner(github);
+                    if (person == null) {
+                        throw new AbortException(
+                                repoOwner + " does not correspond to a known GitHub User Account or Organization");
                     }
-                    listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                            "%d repositories were processed", witness.getCount()
-                    )));
-                    return;
+                    owner = OwnerCache.put(apiUri, credentials, repoOwner, person);
                 }
-
-                GHUser user = null;
+                switch (owner.getKind()) {
+                    case MYSELF:
+                        listener.getLogger().format("Looking up %s repository of myself %s%n%n", sourceName, repoOwner);
+                        break;
+                    case ORGANIZATION:
+                        listener.getLogger()
+                                .format("Looking up %s repository of organization %s%n%n", sourceName, repoOwner);
+                        break;
+                    default:
+                        listener.getLogger().format("Looking up %s repository of user %s%n%n", sourceName, repoOwner);
+                        break;
+                }
+                // we know who the owner is, so straight to the repository
+                GHRepository repo;
                 try {
-                    user = github.getUser(repoOwner);
+                    repo = github.getRepository(owner.getLogin() + "/" + sourceName);
                 } catch (RateLimitExceededException rle) {
                     throw new AbortException(rle.getMessage());
                 } catch (FileNotFoundException fnf) {
-                    // the user may not exist... ok to ignore
+                    repo = null;
                 }
-                if (user != null && repoOwner.equalsIgnoreCase(user.getLogin())) {
-                    listener.getLogger().format("Looking up %s repository of user %s%n%n", sourceName, repoOwner);
-                    GHRepository repo = user.getRepository(sourceName);
-                    if (repo != null) {
-                        if (request.process(repo.getName(), sourceFactory, null, witness)) {
-                            listener.getLogger()
-                                    .println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                                            "%d repositories were processed (query completed)", witness.getCount()
-                                    )));
-                        }
+                if (repo != null && (owner.getKind() != OwnerCache.Kind.MYSELF || repo.getOwnerName().equals(repoOwner))
+                        && !request.isExcluded(repo) && hasTopics(request, repo)) {
+                    RepositorySession.prime(github, repo);
+                    if (request.process(repo.getName(), sourceFactory, null, witness)) {
+                        listener.getLogger()
+                                .println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
+                                        "%d repositories were processed (query completed)", witness.getCount()
+                                )));
                     }
-                    listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
-                            "%d repositories were processed", witness.getCount()
-                    )));
-                    return;
                 }
-
-                throw new AbortException(
-                        repoOwner + " does not correspond to a known GitHub User Account or Organization");
+                listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
+                        "%d repositories were processed", witness.getCount()
+                )));
             } finally {
                 request.close();
             }
@@ -1156,21 +1235,30 @@ public class AzureDevOpsRepoSCMNavigator extends SCMNavigator {
         StandardCredentials credentials = Connector.lookupScanCredentials((Item) owner, getApiUri(), credentialsId);
         GitHub hub = Connector.connect(getApiUri(), credentials);
         try {
-            Connector.checkApiRateLimit(listener, hub);
-            GHUser u = hub.getUser(getRepoOwner());
-            String objectUrl = u.getHtmlUrl() == null ? null : u.getHtmlUrl().toExternalForm();
+            // the details of the owner practically never change, so only ask once they are no longer cached
+            OwnerCache.Owner o = OwnerCache.get(getApiUri(), credentials, repoOwner);
+            if (o == null) {
+                Connector.checkApiRateLimit(listener, hub);
+                GHPerson person = lookupOwner(hub);
+                if (person == null) {
+                    throw new AbortException(
+                            repoOwner + " does not correspond to a known GitHub User Account or Organization");
+                }
+                o = OwnerCache.put(getApiUri(), credentials, repoOwner, person);
+            }
+            String objectUrl = o.getHtmlUrl();
             result.add(new ObjectMetadataAction(
-                    Util.fixEmpty(u.getName()),
+                    Util.fixEmpty(o.getName()),
                     null,
                     objectUrl)
             );
-            result.add(new AzureDevOpsRepoOrgMetadataAction(u));
-            result.add(new AzureDevOpsRepoLink("icon-github-logo", u.getHtmlUrl()));
+            result.add(new AzureDevOpsRepoOrgMetadataAction(o.getAvatarUrl()));
             if (objectUrl == null) {
                 listener.getLogger().println("Organization URL: unspecified");
             } else {
+                result.add(new AzureDevOpsRepoLink("icon-github-logo", objectUrl));
                 listener.getLogger().printf("Organization URL: %s%n",
-                        HyperlinkNote.encodeTo(objectUrl, StringUtils.defaultIfBlank(u.getName(), objectUrl)));
+                        HyperlinkNote.encodeTo(objectUrl, StringUtils.defaultIfBlank(o.getName(), objectUrl)));
             }
             return result;
         } finally {
@@ -1560,6 +1648,7 @@ public class AzureDevOpsRepoSCMNavigator extends SCMNavigator {
         @NonNull
         @Override
         public SCMSource create(@NonNull String name) {
+            // keep in sync with sourceId(GHRepository)
             return new AzureDevOpsRepoSCMSourceBuilder(getId() + "::" + name, apiUri, credentialsId, repoOwner, name)
                     .withRequest(request)
                     .build();
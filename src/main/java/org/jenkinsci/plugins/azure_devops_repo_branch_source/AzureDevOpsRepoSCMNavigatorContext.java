@@ -23,17 +23,185 @@
  */
 package org.jenkinsci.plugins.azure_devops_repo_branch_source;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import jenkins.scm.api.SCMNavigator;
 import jenkins.scm.api.SCMSourceObserver;
 import jenkins.scm.api.trait.SCMNavigatorContext;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
 /**
  * The {@link SCMNavigatorContext} for GitHub.
  *
  * @since 2.2.0
  */
 public class AzureDevOpsRepoSCMNavigatorContext extends SCMNavigatorContext<AzureDevOpsRepoSCMNavigatorContext, AzureDevOpsRepoSCMNavigatorRequest> {
+    /**
+     * {@code true} if archived repositories should be ignored.
+     */
+    private boolean excludeArchivedRepositories;
+    /**
+     * {@code true} if empty repositories should be ignored.
+     */
+    private boolean excludeEmptyRepositories;
+    /**
+     * {@code true} if repositories should be found using the search API.
+     */
+    private boolean repositorySearch;
+    /**
+     * The topics that repositories must have.
+     */
+    @NonNull
+    private final Set<String> topics = new TreeSet<>();
+    /**
+     * {@code true} for only private repositories, {@code false} for only public repositories or {@code null} for
+     * both.
+     */
+    @CheckForNull
+    private Boolean privateRepositories;
+    /**
+     * {@code true} for only forks, {@code false} for only repositories that are not forks or {@code null} for both.
+     */
+    @CheckForNull
+    private Boolean forkRepositories;
+
+    /**
+     * Returns {@code true} if archived repositories should be ignored.
+     *
+     * @return {@code true} if archived repositories should be ignored.
+     */
+    public final boolean isExcludeArchivedRepositories() {
+        return excludeArchivedRepositories;
+    }
+
+    /**
+     * Returns {@code true} if empty repositories should be ignored.
+     *
+     * @return {@code true} if empty repositories should be ignored.
+     */
+    public final boolean isExcludeEmptyRepositories() {
+        return excludeEmptyRepositories;
+    }
+
+    /**
+     * Returns {@code true} if repositories should be found using the search API.
+     *
+     * @return {@code true} if repositories should be found using the search API.
+     */
+    public final boolean isRepositorySearch() {
+        return repositorySearch;
+    }
+
+    /**
+     * Returns the topics that repositories must have.
+     *
+     * @return the topics that repositories must have.
+     */
+    @NonNull
+    public final Set<String> topics() {
+        return Collections.unmodifiableSet(topics);
+    }
+
+    /**
+     * Returns whether repositories must be private.
+     *
+     * @return {@code true} for only private repositories, {@code false} for only public repositories or {@code null}
+     * for both.
+     */
+    @CheckForNull
+    public final Boolean privateRepositories() {
+        return privateRepositories;
+    }
+
+    /**
+     * Returns whether repositories must be forks.
+     *
+     * @return {@code true} for only forks, {@code false} for only repositories that are not forks or {@code null} for
+     * both.
+     */
+    @CheckForNull
+    public final Boolean forkRepositories() {
+        return forkRepositories;
+    }
+
+    /**
+     * Defines whether archived repositories should be ignored.
+     *
+     * @param exclude {@code true} to ignore archived repositories.
+     * @return {@code this} for method chaining.
+     */
+    @NonNull
+    public final AzureDevOpsRepoSCMNavigatorContext withExcludeArchivedRepositories(boolean exclude) {
+        excludeArchivedRepositories = exclude;
+        return this;
+    }
+
+    /**
+     * Defines whether empty repositories should be ignored.
+     *
+     * @param exclude {@code true} to ignore empty repositories.
+     * @return {@code this} for method chaining.
+     */
+    @NonNull
+    public final AzureDevOpsRepoSCMNavigatorContext withExcludeEmptyRepositories(boolean exclude) {
+        excludeEmptyRepositories = exclude;
+        return this;
+    }
+
+    /**
+     * Defines whether repositories should be found using the search API.
+     *
+     * @param search {@code true} to find repositories using the search API.
+     * @return {@code this} for method chaining.
+     */
+    @NonNull
+    public final AzureDevOpsRepoSCMNavigatorContext withRepositorySearch(boolean search) {
+        repositorySearch = search;
+        return this;
+    }
+
+    /**
+     * Adds topics that repositories must have.
+     *
+     * @param topics the topics.
+     * @return {@code this} for method chaining.
+     */
+    @NonNull
+    public final AzureDevOpsRepoSCMNavigatorContext withTopics(@NonNull Collection<String> topics) {
+        this.topics.addAll(topics);
+        return this;
+    }
+
+    /**
+     * Defines whether repositories must be private.
+     *
+     * @param privateRepositories {@code true} for only private repositories, {@code false} for only public
+     *                            repositories or {@code null} for both.
+     * @return {@code this} for method chaining.
+     */
+    @NonNull
+    public final AzureDevOpsRepoSCMNavigatorContext withPrivateRepositories(@CheckForNull Boolean privateRepositories) {
+        this.privateRepositories = privateRepositories;
+        return this;
+    }
+
+    /**
+     * Defines whether repositories must be forks.
+     *
+     * @param forkRepositories {@code true} for only forks, {@code false} for only repositories that are not forks or
+     *                         {@code null} for both.
+     * @return {@code this} for method chaining.
+     */
+    @NonNull
+    public final AzureDevOpsRepoSCMNavigatorContext withForkRepositories(@CheckForNull Boolean forkRepositories) {
+        this.forkRepositories = forkRepositories;
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
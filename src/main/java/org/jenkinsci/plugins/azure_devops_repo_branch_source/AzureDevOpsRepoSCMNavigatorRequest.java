@@ -23,10 +23,16 @@
  */
 package org.jenkinsci.plugins.azure_devops_repo_branch_source;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import jenkins.scm.api.SCMNavigator;
 import jenkins.scm.api.SCMSourceObserver;
 import jenkins.scm.api.trait.SCMNavigatorRequest;
+import org.kohsuke.github.GHRepository;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Set;
 
 /**
  * The {@link SCMNavigatorRequest} for GitHub.
@@ -34,6 +40,34 @@ import jenkins.scm.api.trait.SCMNavigatorRequest;
  * @since 2.2.0
  */
 public class AzureDevOpsRepoSCMNavigatorRequest extends SCMNavigatorRequest {
+    /**
+     * {@code true} if archived repositories should be ignored.
+     */
+    private final boolean excludeArchivedRepositories;
+    /**
+     * {@code true} if empty repositories should be ignored.
+     */
+    private final boolean excludeEmptyRepositories;
+    /**
+     * {@code true} if repositories should be found using the search API.
+     */
+    private final boolean repositorySearch;
+    /**
+     * The topics that repositories must have.
+     */
+    @NonNull
+    private final Set<String> topics;
+    /**
+     * Whether repositories must be private or {@code null} for both.
+     */
+    @CheckForNull
+    private final Boolean privateRepositories;
+    /**
+     * Whether repositories must be forks or {@code null} for both.
+     */
+    @CheckForNull
+    private final Boolean forkRepositories;
+
     /**
      * Constructor.
      *
@@ -45,5 +79,101 @@ public class AzureDevOpsRepoSCMNavigatorRequest extends SCMNavigatorRequest {
                                                  @NonNull AzureDevOpsRepoSCMNavigatorContext context,
                                                  @NonNull SCMSourceObserver observer) {
         super(source, context, observer);
+        excludeArchivedRepositories = context.isExcludeArchivedRepositories();
+        excludeEmptyRepositories = context.isExcludeEmptyRepositories();
+        repositorySearch = context.isRepositorySearch();
+        topics = context.topics();
+        privateRepositories = context.privateRepositories();
+        forkRepositories = context.forkRepositories();
+    }
+
+    /**
+     * Returns {@code true} if archived repositories should be ignored.
+     *
+     * @return {@code true} if archived repositories should be ignored.
+     */
+    public boolean isExcludeArchivedRepositories() {
+        return excludeArchivedRepositories;
+    }
+
+    /**
+     * Returns {@code true} if repositories should be found using the search API.
+     *
+     * @return {@code true} if repositories should be found using the search API.
+     */
+    public boolean isRepositorySearch() {
+        return repositorySearch;
+    }
+
+    /**
+     * Returns the topics that repositories must have, which can only be checked by the search API.
+     *
+     * @return the topics that repositories must have.
+     */
+    @NonNull
+    public Set<String> getTopics() {
+        return topics;
+    }
+
+    /**
+     * Returns whether repositories must be private.
+     *
+     * @return {@code true} for only private repositories, {@code false} for only public repositories or {@code null}
+     * for both.
+     */
+    @CheckForNull
+    public Boolean getPrivateRepositories() {
+        return privateRepositories;
+    }
+
+    /**
+     * Returns whether repositories must be forks.
+     *
+     * @return {@code true} for only forks, {@code false} for only repositories that are not forks or {@code null} for
+     * both.
+     */
+    @CheckForNull
+    public Boolean getForkRepositories() {
+        return forkRepositories;
+    }
+
+    /**
+     * Returns {@code true} if the repository should be ignored. The decision is taken from the details returned when
+     * listing repositories so that it costs no further API calls.
+     *
+     * @param repository the repository as listed.
+     * @return {@code true} if the repository should be ignored.
+     * @throws IOException if the details of the repository could not be read.
+     */
+    public boolean isExcluded(@NonNull GHRepository repository) throws IOException {
+        if (excludeArchivedRepositories && repository.isArchived()) {
+            return true;
+        }
+        if (privateRepositories != null && repository.isPrivate() != privateRepositories) {
+            return true;
+        }
+        if (forkRepositories != null && repository.isFork() != forkRepositories) {
+            return true;
+        }
+        return excludeEmptyRepositories && isEmpty(repository);
+    }
+
+    /**
+     * Checks whether nothing has been pushed to a repository. GitHub recomputes the size in the background, so it can
+     * still be zero for a while after the first push. The repository is therefore only taken to be empty while it has
+     * also not been pushed to since it was created.
+     *
+     * @param repository the repository as listed.
+     * @return {@code true} if the repository is empty.
+     * @throws IOException if the details of the repository could not be read.
+     */
+    private static boolean isEmpty(@NonNull GHRepository repository) throws IOException {
+        // the size is in kilobytes and is zero until something has been pushed
+        if (repository.getSize() != 0) {
+            return false;
+        }
+        Date pushedAt = repository.getPushedAt();
+        Date createdAt = repository.getCreatedAt();
+        return pushedAt == null || createdAt == null || !pushedAt.after(createdAt);
     }
 }
@@ -29,6 +29,10 @@ import com.cloudbees.plugins.credentials.CredentialsNameProvider;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
 import com.cloudbees.plugins.credentials.common.StandardCredentials;
 import com.cloudbees.plugins.credentials.common.StandardListBoxModel;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -46,6 +50,7 @@ import hudson.model.Item;
 import hudson.model.TaskListener;
 import hudson.plugins.git.extensions.GitSCMExtension;
 import hudson.scm.SCM;
+import hudson.util.ComboBoxModel;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
 import hudson.util.LogTaskListener;
@@ -59,6 +64,7 @@ import jenkins.scm.api.metadata.ContributorMetadataAction;
 import jenkins.scm.api.metadata.ObjectMetadataAction;
 import jenkins.scm.api.metadata.PrimaryInstanceMetadataAction;
 import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
+import jenkins.scm.api.trait.SCMHeadAuthority;
 import jenkins.scm.api.trait.SCMSourceRequest;
 import jenkins.scm.api.trait.SCMSourceTrait;
 import jenkins.scm.api.trait.SCMTrait;
@@ -89,10 +95,11 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.ObjectStreamException;
 import java.net.URL;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
@@ -112,12 +119,19 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     private static final Logger LOGGER = Logger.getLogger(AzureDevOpsRepoSCMSource.class.getName());
     private static final String R_PULL = Constants.R_REFS + "pull/";
     /**
-     * Lock to guard access to the {@link #pullRequestSourceMap} field and prevent concurrent Azure DevOps Repo queries during
-     * a 1.x to 2.2.0+ upgrade.
-     *
-     * @since 2.2.0
+     * How many results to request per page when listing from the Azure DevOps Repo API.
+     */
+    private static final int PAGE_SIZE = 100;
+    /**
+     * How many pages to fetch ahead of the page that is being processed.
      */
-    private static final Object pullRequestSourceMapLock = new Object();
+    private static final int PREFETCH_PAGES = 2;
+    /**
+     * Limits how many sources can be querying Azure DevOps Repo concurrently during a 1.x to 2.2.0+ upgrade, so that
+     * job loading can proceed in parallel without flooding the API.
+     */
+    private static final Semaphore pullRequestSourceMapPermits = new Semaphore(Math.max(1,
+            Integer.getInteger(AzureDevOpsRepoSCMSource.class.getName() + ".migrationConcurrency", 4)), true);
     /**
      * How long to delay events received from Azure DevOps Repo in order to allow the API caches to sync.
      */
@@ -128,6 +142,10 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
      */
     private static /*mostly final*/ int cacheSize =
             Math.min(1024, Math.max(0, Integer.getInteger(AzureDevOpsRepoSCMSource.class.getName() + ".cacheSize", isWindows() ? 0 : 20)));
+    /**
+     * The canonical collaborator name sets, so that all the sources of the same repository share a single copy.
+     */
+    private static final Interner<Set<String>> collaboratorNamesInterner = Interners.newWeakInterner();
 
     //////////////////////////////////////////////////////////////////////
     // Configuration fields
@@ -226,31 +244,28 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     //////////////////////////////////////////////////////////////////////
 
     /**
-     * Cache of the official repository HTML URL as reported by {@link GitHub#getRepository(String)}.
+     * Cache of the shared summary of the repository, including the official repository HTML URL as reported by
+     * {@link GitHub#getRepository(String)}.
      */
     @CheckForNull
-    private transient URL repositoryUrl;
+    private transient RepositorySummary repositorySummary;
     /**
-     * The collaborator names used to determine if pull requests are from trusted authors
+     * The most recent snapshot of the refs of the repository, used to resolve head names without probing each API.
      */
     @CheckForNull
-    private transient Set<String> collaboratorNames;
+    private transient volatile RefsSnapshot refsSnapshot;
     /**
-     * Cache of details of the repository.
+     * The collaborator names used to determine if pull requests are from trusted authors
      */
     @CheckForNull
-    private transient GHRepository ghRepository;
+    private transient Set<String> collaboratorNames;
 
     /**
-     * The cache of {@link ObjectMetadataAction} instances for each open PR.
-     */
-    @NonNull
-    private transient /*effectively final*/ Map<Integer, ObjectMetadataAction> pullRequestMetadataCache;
-    /**
-     * The cache of {@link ObjectMetadataAction} instances for each open PR.
+     * The persistent store of {@link ObjectMetadataAction} and {@link ContributorMetadataAction} details for each
+     * open PR.
      */
     @NonNull
-    private transient /*effectively final*/ Map<Integer, ContributorMetadataAction> pullRequestContributorCache;
+    private transient /*effectively final*/ PullRequestMetadataStore pullRequestMetadataStore;
 
     /**
      * Used during upgrade from 1.x to 2.2.0+ only.
@@ -262,6 +277,23 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
      */
     @CheckForNull // normally null except during a migration from 1.x
     private transient /*effectively final*/ Map<Integer, PullRequestSource> pullRequestSourceMap;
+    /**
+     * Lock to guard access to the {@link #pullRequestSourceMap} field and prevent concurrent Azure DevOps Repo queries
+     * for this source during a 1.x to 2.2.0+ upgrade.
+     */
+    @NonNull
+    private transient /*effectively final*/ Object pullRequestSourceMapLock;
+    /**
+     * The compiled {@link #traits} or {@code null} if they need to be compiled again.
+     */
+    @CheckForNull
+    private transient volatile TraitsSnapshot traitsSnapshot;
+    /**
+     * The heads observed by the last full scan, kept up to date by events so that they can stand in for the periodic
+     * scans while the webhooks of the repository are healthy, or {@code null} if not known.
+     */
+    @CheckForNull
+    private transient volatile ObservedHeads lastFullScan;
 
     /**
      * Constructor, defaults to {@link #GITHUB_URL} as the end-point, and anonymous access, does not default any
@@ -275,8 +307,8 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     public AzureDevOpsRepoSCMSource(@NonNull String repoOwner, @NonNull String repository) {
         this.repoOwner = repoOwner;
         this.repository = repository;
-        pullRequestMetadataCache = new ConcurrentHashMap<>();
-        pullRequestContributorCache = new ConcurrentHashMap<>();
+        pullRequestMetadataStore = new PullRequestMetadataStore(this);
+        pullRequestSourceMapLock = new Object();
         this.traits = new ArrayList<>();
     }
 
@@ -401,6 +433,21 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
         return traits;
     }
 
+    /**
+     * Returns the compiled {@link #getTraits()}, for callers that only need to know what the traits contribute to an
+     * {@link AzureDevOpsRepoSCMSourceContext}.
+     *
+     * @return the compiled traits.
+     */
+    @NonNull
+    /*package*/ TraitsSnapshot getTraitsSnapshot() {
+        TraitsSnapshot snapshot = traitsSnapshot;
+        if (snapshot == null || !snapshot.isFor(traits)) {
+            traitsSnapshot = snapshot = TraitsSnapshot.of(traits);
+        }
+        return snapshot;
+    }
+
     /**
      * Gets the credentials used to access the Azure DevOps Repo REST API (also used as the default credentials for checking out
      * sources.
@@ -421,6 +468,8 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     @DataBoundSetter
     public void setTraits(@CheckForNull List<SCMSourceTrait> traits) {
         this.traits = new ArrayList<>(Util.fixNull(traits));
+        this.traitsSnapshot = null;
+        this.lastFullScan = null;
     }
 
     /**
@@ -444,12 +493,14 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
         if (scanCredentialsId != null) {
             credentialsId = scanCredentialsId;
         }
-        if (pullRequestMetadataCache == null) {
-            pullRequestMetadataCache = new ConcurrentHashMap<>();
+        if (pullRequestMetadataStore == null) {
+            pullRequestMetadataStore = new PullRequestMetadataStore(this);
         }
-        if (pullRequestContributorCache == null) {
-            pullRequestContributorCache = new ConcurrentHashMap<>();
+        if (pullRequestSourceMapLock == null) {
+            pullRequestSourceMapLock = new Object();
         }
+        traitsSnapshot = null;
+        lastFullScan = null;
         if (traits == null) {
             boolean buildOriginBranch = this.buildOriginBranch == null || this.buildOriginBranch;
             boolean buildOriginBranchWithPR = this.buildOriginBranchWithPR == null || this.buildOriginBranchWithPR;
@@ -829,31 +880,41 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     protected final void retrieve(@CheckForNull SCMSourceCriteria criteria,
                                   @NonNull SCMHeadObserver observer,
                                   @CheckForNull SCMHeadEvent<?> event,
-                                  @NonNull final TaskListener listener) throws IOException, InterruptedException {
+                                  @NonNull TaskListener scanListener) throws IOException, InterruptedException {
+        // when recognized by a navigator processing several repositories at a time, keep our log together
+        final TaskListener listener = RepositoryVisitor.listenerOf(scanListener);
         StandardCredentials credentials = Connector.lookupScanCredentials((Item) getOwner(), apiUri, credentialsId);
+        // Input data validation
+        if (StringUtils.isBlank(repository)) {
+            throw new AbortException("No repository selected, skipping");
+        }
+        final String fullName = repoOwner + "/" + repository;
+        if (event == null && replayLastFullScan(observer, listener, WebhookHealth.isPeriodicScan())) {
+            return;
+        }
+        // are we being recognized by a navigator that knows the repository has not changed?
+        final RepositoryWatermarks.Recognition recognition =
+                event == null ? RepositoryWatermarks.current(getId()) : null;
+        if (recognition != null && recognition.replay(observer, listener)) {
+            return;
+        }
         // Github client and validation
-        final GitHub github = Connector.connect(apiUri, credentials);
+        final RepositorySession session = openSession(credentials, fullName, listener);
+        final GitHub github = session.getGitHub();
+        final Map<SCMHead, SCMRevision> observed = new LinkedHashMap<>();
+        final ScanLog scanLog = new ScanLog(listener, getTraitsSnapshot().compactScanLog());
+        ScanCheckpoint checkpoint = null;
         try {
-            checkApiUrlValidity(github, credentials);
-            Connector.checkApiRateLimit(listener, github);
-
             try {
-                // Input data validation
-                Connector.checkConnectionValidity(apiUri, listener, credentials, github);
-
-                // Input data validation
-                if (StringUtils.isBlank(repository)) {
-                    throw new AbortException("No repository selected, skipping");
-                }
-
-                String fullName = repoOwner + "/" + repository;
-                ghRepository = github.getRepository(fullName);
-                final GHRepository ghRepository = this.ghRepository;
+                final GHRepository ghRepository = session.getRepository();
                 listener.getLogger().format("Examining %s%n",
                         HyperlinkNote.encodeTo(ghRepository.getHtmlUrl().toString(), fullName));
-                repositoryUrl = ghRepository.getHtmlUrl();
+                // only full scans are checkpointed, events only look at a few heads
+                final ScanCheckpoint probes = checkpoint = event == null ? ScanCheckpoint.open(this, listener) : null;
+                repositorySummary = RepositorySummary.of(ghRepository);
                 try (final AzureDevOpsRepoSCMSourceRequest request = new AzureDevOpsRepoSCMSourceContext(criteria, observer)
                         .withTraits(traits)
+                        .withHeadNameScope(getTraitsSnapshot().headNameScope())
                         .newRequest(this, listener)) {
                     // populate the request with its data sources
                     request.setGitHub(github);
@@ -871,7 +932,7 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                     request.setPermissionsSource(new AzureDevOpsRepoPermissionsSource() {
                         @Override
                         public GHPermissionType fetch(String username) throws IOException, InterruptedException {
-                            return ghRepository.getPermission(username);
+                            return PermissionCache.fetch(apiUri, credentials, ghRepository, username);
                         }
                     });
 
@@ -881,8 +942,7 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                         for (final GHBranch branch : request.getBranches()) {
                             count++;
                             String branchName = branch.getName();
-                            listener.getLogger().format("%n    Checking branch %s%n", HyperlinkNote
-                                    .encodeTo(repositoryUrl + "/tree/" + branchName, branchName));
+                            scanLog.head("branch", ghRepository.getHtmlUrl() + "/tree/" + branchName, branchName);
                             BranchSCMHead head = new BranchSCMHead(branchName);
                             if (request.process(head, new SCMRevisionImpl(head, branch.getSHA1()),
                                     new SCMSourceRequest.ProbeLambda<BranchSCMHead, SCMRevisionImpl>() {
@@ -891,96 +951,119 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                                         public SCMSourceCriteria.Probe create(@NonNull BranchSCMHead head,
                                                                               @Nullable SCMRevisionImpl revisionInfo)
                                                 throws IOException, InterruptedException {
-                                            return new AzureDevOpsRepoSCMProbe(github, ghRepository, head, revisionInfo);
+                                            return checkpointed(probes, branch.getSHA1(),
+                                                    new AzureDevOpsRepoSCMProbe(github, ghRepository, head, revisionInfo));
                                         }
-                                    }, new CriteriaWitness(listener))) {
-                                listener.getLogger().format("%n  %d branches were processed (query completed)%n", count);
+                                    }, new CriteriaWitness(scanLog, observed))) {
+                                scanLog.done();
+                                scanLog.summary("%n  %d branches were processed (query completed)%n", count);
                                 break;
                             } else {
+                                scanLog.done();
                                 request.checkApiRateLimit();
                             }
                         }
-                        listener.getLogger().format("%n  %d branches were processed%n", count);
+                        scanLog.summary("%n  %d branches were processed%n", count);
                     }
                     if (request.isFetchPRs() && !request.isComplete()) {
                         listener.getLogger().format("%n  Checking pull-requests...%n");
                         int count = 0;
                         Map<Boolean, Set<ChangeRequestCheckoutStrategy>> strategies = request.getPRStrategies();
+                        boolean prefetchPermissions = !strategies.get(true).isEmpty()
+                                && needsPermissions(getTraitsSnapshot().authorities());
+                        // take a page at a time so that the permissions of the fork authors can be looked up
+                        // together rather than one at a time as each pull request is checked for trust
+                        int pageSize = prefetchPermissions ? PAGE_SIZE : 1;
+                        Iterator<GHPullRequest> pullRequests = request.getPullRequests().iterator();
                         PRs:
-                        for (final GHPullRequest pr : request.getPullRequests()) {
-                            int number = pr.getNumber();
-                            boolean fork = !ghRepository.getOwner().equals(pr.getHead().getUser());
-                            listener.getLogger().format("%n    Checking pull request %s%n",
-                                    HyperlinkNote.encodeTo(pr.getHtmlUrl().toString(), "#" + number));
-                            if (strategies.get(fork).isEmpty()) {
-                                if (fork) {
-                                    listener.getLogger().format("    Submitted from fork, skipping%n%n");
-                                } else {
-                                    listener.getLogger().format("    Submitted from origin repository, skipping%n%n");
+                        while (pullRequests.hasNext()) {
+                            List<GHPullRequest> page = new ArrayList<>(pageSize);
+                            while (page.size() < pageSize && pullRequests.hasNext()) {
+                                page.add(pullRequests.next());
+                            }
+                            if (prefetchPermissions) {
+                                Set<String> authors = new HashSet<>();
+                                for (GHPullRequest pr : page) {
+                                    GHRepository headRepository = pr.getHead().getRepository();
+                                    if (headRepository != null && !ghRepository.getOwner().equals(pr.getHead().getUser())) {
+                                        authors.add(headRepository.getOwnerName());
+                                    }
                                 }
-                                continue;
+                                request.prefetchPermissions(authors);
                             }
-                            for (final ChangeRequestCheckoutStrategy strategy : strategies.get(fork)) {
-                                final String branchName;
-                                if (strategies.get(fork).size() == 1) {
-                                    branchName = "PR-" + number;
-                                } else {
-                                    branchName = "PR-" + number + "-" + strategy.name().toLowerCase(Locale.ENGLISH);
+                            for (final GHPullRequest pr : page) {
+                                int number = pr.getNumber();
+                                boolean fork = !ghRepository.getOwner().equals(pr.getHead().getUser());
+                                scanLog.head("pull request", pr.getHtmlUrl().toString(), "#" + number);
+                                if (strategies.get(fork).isEmpty()) {
+                                    if (fork) {
+                                        scanLog.skipped("    Submitted from fork, skipping");
+                                    } else {
+                                        scanLog.skipped("    Submitted from origin repository, skipping");
+                                    }
+                                    continue;
                                 }
-                                count++;
-                                if (request.process(new PullRequestSCMHead(
-                                                pr, branchName, strategy == ChangeRequestCheckoutStrategy.MERGE
-                                        ),
-                                        null,
-                                        new SCMSourceRequest.ProbeLambda<PullRequestSCMHead, Void>() {
-                                            @NonNull
-                                            @Override
-                                            public SCMSourceCriteria.Probe create(@NonNull PullRequestSCMHead head,
-                                                                                  @Nullable Void revisionInfo)
-                                                    throws IOException, InterruptedException {
-                                                boolean trusted = request.isTrusted(head);
-                                                if (!trusted) {
-                                                    listener.getLogger().format("    (not from a trusted source)%n");
+                                for (final ChangeRequestCheckoutStrategy strategy : strategies.get(fork)) {
+                                    final String branchName;
+                                    if (strategies.get(fork).size() == 1) {
+                                        branchName = "PR-" + number;
+                                    } else {
+                                        branchName = "PR-" + number + "-" + strategy.name().toLowerCase(Locale.ENGLISH);
+                                    }
+                                    count++;
+                                    if (request.process(new PullRequestSCMHead(
+                                                    pr, branchName, strategy == ChangeRequestCheckoutStrategy.MERGE
+                                            ),
+                                            null,
+                                            new SCMSourceRequest.ProbeLambda<PullRequestSCMHead, Void>() {
+                                                @NonNull
+                                                @Override
+                                                public SCMSourceCriteria.Probe create(@NonNull PullRequestSCMHead head,
+                                                                                      @Nullable Void revisionInfo)
+                                                        throws IOException, InterruptedException {
+                                                    boolean trusted = request.isTrusted(head);
+                                                    if (!trusted) {
+                                                        scanLog.detail("    (not from a trusted source)", false);
+                                                    }
+                                                    return new AzureDevOpsRepoSCMProbe(github, ghRepository,
+                                                            trusted ? head : head.getTarget(), null);
                                                 }
-                                                return new AzureDevOpsRepoSCMProbe(github, ghRepository,
-                                                        trusted ? head : head.getTarget(), null);
-                                            }
-                                        },
-                                        new SCMSourceRequest.LazyRevisionLambda<PullRequestSCMHead, SCMRevision, Void>() {
-                                            @NonNull
-                                            @Override
-                                            public SCMRevision create(@NonNull PullRequestSCMHead head,
-                                                                      @Nullable Void ignored)
-                                                    throws IOException, InterruptedException {
-                                                switch (strategy) {
-                                                    case MERGE:
-                                                        request.checkApiRateLimit();
-                                                        GHRef mergeRef = ghRepository.getRef(
-                                                                "heads/" + pr.getBase().getRef()
-                                                        );
-                                                        return new PullRequestSCMRevision(head,
-                                                                mergeRef.getObject().getSha(),
-                                                                pr.getHead().getSha());
-                                                    default:
-                                                        return new PullRequestSCMRevision(head, pr.getBase().getSha(),
-                                                                pr.getHead().getSha());
+                                            },
+                                            new SCMSourceRequest.LazyRevisionLambda<PullRequestSCMHead, SCMRevision, Void>() {
+                                                @NonNull
+                                                @Override
+                                                public SCMRevision create(@NonNull PullRequestSCMHead head,
+                                                                          @Nullable Void ignored)
+                                                        throws IOException, InterruptedException {
+                                                    switch (strategy) {
+                                                        case MERGE:
+                                                            request.checkApiRateLimit();
+                                                            GHRef mergeRef = ghRepository.getRef(
+                                                                    "heads/" + pr.getBase().getRef()
+                                                            );
+                                                            return new PullRequestSCMRevision(head,
+                                                                    mergeRef.getObject().getSha(),
+                                                                    pr.getHead().getSha());
+                                                        default:
+                                                            return new PullRequestSCMRevision(head, pr.getBase().getSha(),
+                                                                    pr.getHead().getSha());
+                                                    }
                                                 }
-                                            }
-                                        },
-                                        new MergabilityWitness(pr, strategy, listener),
-                                        new CriteriaWitness(listener)
-                                )) {
-                                    listener.getLogger().format(
-                                            "%n  %d pull requests were processed (query completed)%n",
-                                            count
-                                    );
-                                    break PRs;
-                                } else {
-                                    request.checkApiRateLimit();
+                                            },
+                                            new MergabilityWitness(pr, strategy, scanLog),
+                                            new CriteriaWitness(scanLog, observed)
+                                    )) {
+                                        scanLog.done();
+                                        scanLog.summary("%n  %d pull requests were processed (query completed)%n", count);
+                                        break PRs;
+                                    } else {
+                                        request.checkApiRateLimit();
+                                    }
                                 }
+                                scanLog.done();
                             }
                         }
-                        listener.getLogger().format("%n  %d pull requests were processed%n", count);
+                        scanLog.summary("%n  %d pull requests were processed%n", count);
                     }
                     if (request.isFetchTags() && !request.isComplete()) {
                         listener.getLogger().format("%n  Checking tags...%n");
@@ -993,8 +1076,7 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                             }
                             tagName = tagName.substring(Constants.R_TAGS.length());
                             count++;
-                            listener.getLogger().format("%n    Checking tag %s%n", HyperlinkNote
-                                    .encodeTo(repositoryUrl + "/tree/" + tagName, tagName));
+                            scanLog.head("tag", ghRepository.getHtmlUrl() + "/tree/" + tagName, tagName);
                             long tagDate = 0L;
                             String sha = tag.getObject().getSha();
                             if ("tag".equalsIgnoreCase(tag.getObject().getType())) {
@@ -1018,6 +1100,7 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                                 }
                             }
                             AzureDevOpsRepoTagSCMHead head = new AzureDevOpsRepoTagSCMHead(tagName, tagDate);
+                            final String tagHash = sha;
                             if (request.process(head, new GitTagSCMRevision(head, sha),
                                     new SCMSourceRequest.ProbeLambda<AzureDevOpsRepoTagSCMHead, GitTagSCMRevision>() {
                                         @NonNull
@@ -1025,19 +1108,28 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                                         public SCMSourceCriteria.Probe create(@NonNull AzureDevOpsRepoTagSCMHead head,
                                                                               @Nullable GitTagSCMRevision revisionInfo)
                                                 throws IOException, InterruptedException {
-                                            return new AzureDevOpsRepoSCMProbe(github, ghRepository, head, revisionInfo);
+                                            return checkpointed(probes, tagHash,
+                                                    new AzureDevOpsRepoSCMProbe(github, ghRepository, head, revisionInfo));
                                         }
-                                    }, new CriteriaWitness(listener))) {
-                                listener.getLogger()
-                                        .format("%n  %d tags were processed (query completed)%n", count);
+                                    }, new CriteriaWitness(scanLog, observed))) {
+                                scanLog.done();
+                                scanLog.summary("%n  %d tags were processed (query completed)%n", count);
                                 break;
                             } else {
+                                scanLog.done();
                                 request.checkApiRateLimit();
                             }
                         }
-                        listener.getLogger().format("%n  %d tags were processed%n", count);
+                        scanLog.summary("%n  %d tags were processed%n", count);
                     }
                 }
+                if (probes != null) {
+                    probes.complete();
+                }
+                recordObservedHeads(event, observer, observed);
+                if (recognition != null) {
+                    recognition.recorded(observed);
+                }
                 listener.getLogger().format("%nFinished examining %s%n%n", fullName);
             } catch (WrappedException e) {
                 try {
@@ -1047,38 +1139,127 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                 }
             }
         } finally {
-            Connector.release(github);
+            if (checkpoint != null) {
+                // a no-op once completed, otherwise lets the next scan pick up where this one stopped
+                checkpoint.save();
+            }
+            scanLog.flush();
+            session.close();
         }
     }
 
+    /**
+     * Replays the heads of the last full scan in place of a periodic scan if the webhooks of the repository are
+     * healthy.
+     *
+     * @param observer the observer of the scan.
+     * @param listener the listener of the scan.
+     * @param periodic {@code true} if the scan was triggered by a timer, see {@link WebhookHealth#isPeriodicScan()}.
+     * @return {@code true} if the heads were replayed, {@code false} if a full scan is needed.
+     * @throws IOException          if the observer could not observe a head.
+     * @throws InterruptedException if interrupted.
+     */
+    /*package*/ boolean replayLastFullScan(@NonNull SCMHeadObserver observer, @NonNull TaskListener listener,
+                                           boolean periodic) throws IOException, InterruptedException {
+        ObservedHeads last = lastFullScan;
+        if (last == null
+                || observer.getIncludes() != null
+                || !periodic
+                || !WebhookHealth.canSkipScan(apiUri, repoOwner, repository, last.completed)) {
+            return false;
+        }
+        listener.getLogger().format("Webhooks for %s/%s are being delivered, "
+                        + "using the %d heads from the scan completed %s ago%n",
+                repoOwner, repository, last.heads.size(),
+                Util.getTimeSpanString(System.currentTimeMillis() - last.completed));
+        for (Map.Entry<SCMHead, SCMRevision> entry : last.heads.entrySet()) {
+            if (!observer.isObserving()) {
+                break;
+            }
+            observer.observe(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+
+    /**
+     * Records the heads observed by a scan so that they can be replayed by {@link #replayLastFullScan}.
+     *
+     * @param event    the event that caused the scan or {@code null} for a full scan.
+     * @param observer the observer of the scan.
+     * @param observed the heads that were observed.
+     */
+    /*package*/ synchronized void recordObservedHeads(@CheckForNull SCMHeadEvent<?> event,
+                                                      @NonNull SCMHeadObserver observer,
+                                                      @NonNull Map<SCMHead, SCMRevision> observed) {
+        Set<SCMHead> includes = observer.getIncludes();
+        if (event == null && includes == null) {
+            lastFullScan = new ObservedHeads(System.currentTimeMillis(), observed);
+            return;
+        }
+        ObservedHeads last = lastFullScan;
+        if (last == null) {
+            return;
+        }
+        if (includes == null) {
+            // we cannot tell which heads the event removed
+            lastFullScan = null;
+            return;
+        }
+        Map<SCMHead, SCMRevision> heads = new LinkedHashMap<>(last.heads);
+        heads.keySet().removeAll(includes);
+        heads.putAll(observed);
+        lastFullScan = new ObservedHeads(last.completed, heads);
+    }
+
+    /**
+     * Checks if any of the supplied authorities decides trust from the permissions of the pull request author.
+     *
+     * @param authorities the authorities.
+     * @return {@code true} if the permissions of fork pull request authors will be needed.
+     */
+    private static boolean needsPermissions(@NonNull List<SCMHeadAuthority> authorities) {
+        for (SCMHeadAuthority authority : authorities) {
+            if (authority instanceof ForkPullRequestDiscoveryTrait.TrustPermission) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wraps the probe of a commit with the scan checkpoint, if there is one.
+     *
+     * @param checkpoint the checkpoint of the current scan or {@code null} if the scan is not checkpointed.
+     * @param hash       the commit hash that the probe examines.
+     * @param probe      the probe.
+     * @return the probe to use.
+     */
+    @NonNull
+    private static SCMProbe checkpointed(@CheckForNull ScanCheckpoint checkpoint, @NonNull String hash,
+                                         @NonNull AzureDevOpsRepoSCMProbe probe) {
+        return checkpoint == null ? probe : checkpoint.probe(hash, probe);
+    }
+
     @NonNull
     @Override
     protected Set<String> retrieveRevisions(@NonNull TaskListener listener) throws IOException, InterruptedException {
         StandardCredentials credentials = Connector.lookupScanCredentials((Item) getOwner(), apiUri, credentialsId);
+        // Input data validation
+        if (StringUtils.isBlank(repository)) {
+            throw new AbortException("No repository selected, skipping");
+        }
+        String fullName = repoOwner + "/" + repository;
         // Github client and validation
-        final GitHub github = Connector.connect(apiUri, credentials);
+        RepositorySession session = openSession(credentials, fullName, listener);
         try {
-            checkApiUrlValidity(github, credentials);
-            Connector.checkApiRateLimit(listener, github);
             Set<String> result = new TreeSet<>();
 
             try {
-                // Input data validation
-                Connector.checkConnectionValidity(apiUri, listener, credentials, github);
-
-                // Input data validation
-                if (StringUtils.isBlank(repository)) {
-                    throw new AbortException("No repository selected, skipping");
-                }
-
-                String fullName = repoOwner + "/" + repository;
-                ghRepository = github.getRepository(fullName);
-                final GHRepository ghRepository = this.ghRepository;
+                final GHRepository ghRepository = session.getRepository();
                 listener.getLogger().format("Listing %s%n",
                         HyperlinkNote.encodeTo(ghRepository.getHtmlUrl().toString(), fullName));
-                repositoryUrl = ghRepository.getHtmlUrl();
-                AzureDevOpsRepoSCMSourceContext context = new AzureDevOpsRepoSCMSourceContext(null, SCMHeadObserver.none())
-                        .withTraits(traits);
+                repositorySummary = RepositorySummary.of(ghRepository);
+                TraitsSnapshot context = getTraitsSnapshot();
                 boolean wantBranches = context.wantBranches();
                 boolean wantTags = context.wantTags();
                 boolean wantPRs = context.wantPRs();
@@ -1087,12 +1268,22 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                 Set<ChangeRequestCheckoutStrategy> strategies = new TreeSet<>();
                 strategies.addAll(context.forkPRStrategies());
                 strategies.addAll(context.originPRStrategies());
-                for (GHRef ref : ghRepository.listRefs()) {
-                    String name = ref.getRef();
+                // only list the namespaces we want, there can be far more tags or pull refs than branches
+                Set<String> namespaces = new LinkedHashSet<>();
+                if (wantBranches) {
+                    namespaces.add(Constants.R_HEADS);
+                }
+                if (wantPRs) {
+                    namespaces.add(R_PULL);
+                }
+                if (wantTags) {
+                    namespaces.add(Constants.R_TAGS);
+                }
+                for (String name : fetchRefsSnapshot(ghRepository, fullName, namespaces).names()) {
                     if (name.startsWith(Constants.R_HEADS) && wantBranches) {
                         String branchName = name.substring(Constants.R_HEADS.length());
                         listener.getLogger().format("%n  Found branch %s%n", HyperlinkNote
-                                .encodeTo(repositoryUrl + "/tree/" + branchName, branchName));
+                                .encodeTo(ghRepository.getHtmlUrl() + "/tree/" + branchName, branchName));
                         result.add(branchName);
                         continue;
                     }
@@ -1101,7 +1292,7 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                         if (index != -1) {
                             String number = name.substring(R_PULL.length(), index);
                             listener.getLogger().format("%n  Found pull request %s%n", HyperlinkNote
-                                    .encodeTo(repositoryUrl + "/pull/" + number, "#" + number));
+                                    .encodeTo(ghRepository.getHtmlUrl() + "/pull/" + number, "#" + number));
                             // we are allowed to return "invalid" names so if the user has configured, say
                             // origin as single strategy and fork as multiple strategies
                             // we will return PR-5, PR-5-merge and PR-5-head in the result set
@@ -1125,7 +1316,7 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                     if (name.startsWith(Constants.R_TAGS) && wantTags) {
                         String tagName = name.substring(Constants.R_TAGS.length());
                         listener.getLogger().format("%n  Found tag %s%n", HyperlinkNote
-                                .encodeTo(repositoryUrl + "/tree/" + tagName, tagName));
+                                .encodeTo(ghRepository.getHtmlUrl() + "/tree/" + tagName, tagName));
                         result.add(tagName);
                         continue;
                     }
@@ -1140,7 +1331,7 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
             }
             return result;
         } finally {
-            Connector.release(github);
+            session.close();
         }
     }
 
@@ -1148,25 +1339,38 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     protected SCMRevision retrieve(@NonNull String headName, @NonNull TaskListener listener)
             throws IOException, InterruptedException {
         StandardCredentials credentials = Connector.lookupScanCredentials((Item) getOwner(), apiUri, credentialsId);
+        // Input data validation
+        if (StringUtils.isBlank(repository)) {
+            throw new AbortException("No repository selected, skipping");
+        }
+        String fullName = repoOwner + "/" + repository;
         // Github client and validation
-        final GitHub github = Connector.connect(apiUri, credentials);
+        RepositorySession session = openSession(credentials, fullName, listener);
+        final GitHub github = session.getGitHub();
         try {
-            checkApiUrlValidity(github, credentials);
-            Connector.checkApiRateLimit(listener, github);
-            // Input data validation
-            if (StringUtils.isBlank(repository)) {
-                throw new AbortException("No repository selected, skipping");
-            }
-
-            String fullName = repoOwner + "/" + repository;
-            ghRepository = github.getRepository(fullName);
-            final GHRepository ghRepository = this.ghRepository;
+            final GHRepository ghRepository = session.getRepository();
             listener.getLogger().format("Examining %s%n",
                     HyperlinkNote.encodeTo(ghRepository.getHtmlUrl().toString(), fullName));
-            AzureDevOpsRepoSCMSourceContext context = new AzureDevOpsRepoSCMSourceContext(null, SCMHeadObserver.none())
-                    .withTraits(traits);
+            TraitsSnapshot context = getTraitsSnapshot();
             Matcher prMatcher = Pattern.compile("^PR-(\\d+)(?:-(.*))?$").matcher(headName);
-            if (prMatcher.matches()) {
+            String pullNumber = prMatcher.matches() ? prMatcher.group(1) : null;
+            String pullRef = pullNumber != null ? R_PULL + pullNumber + "/head" : null;
+            String branchRef = Constants.R_HEADS + headName;
+            String tagRef = Constants.R_TAGS + headName;
+            Set<String> namespaces = new LinkedHashSet<>();
+            if (pullNumber != null) {
+                namespaces.add(R_PULL);
+            }
+            namespaces.add(Constants.R_HEADS);
+            namespaces.add(Constants.R_TAGS);
+            // the refs listed by a scan that has just run tell us which of the candidates exist
+            RefsSnapshot refs = this.refsSnapshot;
+            if (refs == null || !refs.isFreshFor(fullName, namespaces)
+                    || refs.getSha(pullRef) == null && refs.getSha(branchRef) == null && refs.getSha(tagRef) == null) {
+                // nothing cached or the cached snapshot may predate the head we are looking for
+                refs = lookupRefs(ghRepository, fullName, namespaces, pullNumber, headName);
+            }
+            if (refs.getSha(pullRef) != null) {
                 // it's a looking very much like a PR
                 int number = Integer.parseInt(prMatcher.group(1));
                 listener.getLogger().format("Attempting to resolve %s as pull request %d%n", headName, number);
@@ -1266,46 +1470,36 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                     );
                 }
             }
-            try {
-                listener.getLogger().format("Attempting to resolve %s as a branch%n", headName);
-                GHBranch branch = ghRepository.getBranch(headName);
-                if (branch != null) {
-                    listener.getLogger().format("Resolved %s as branch %s at revision %s%n", headName, branch.getName(), branch.getSHA1());
-                    return new SCMRevisionImpl(new BranchSCMHead(headName), branch.getSHA1());
-                }
-            } catch (FileNotFoundException e) {
-                // maybe it's a tag
+            String branchSha = refs.getSha(branchRef);
+            if (branchSha != null) {
+                listener.getLogger().format("Resolved %s as branch %s at revision %s%n", headName, headName, branchSha);
+                return new SCMRevisionImpl(new BranchSCMHead(headName), branchSha);
             }
-            try {
+            String tagSha = refs.getSha(tagRef);
+            if (tagSha != null) {
                 listener.getLogger().format("Attempting to resolve %s as a tag%n", headName);
-                GHRef tag = ghRepository.getRef("tags/" + headName);
-                if (tag != null) {
-                    long tagDate = 0L;
-                    String tagSha = tag.getObject().getSha();
-                    if ("tag".equalsIgnoreCase(tag.getObject().getType())) {
-                        // annotated tag object
-                        try {
-                            GHTagObject tagObject = ghRepository.getTagObject(tagSha);
-                            tagDate = tagObject.getTagger().getDate().getTime();
-                        } catch (IOException e) {
-                            // ignore, if the tag doesn't exist, the probe will handle that correctly
-                            // we just need enough of a date value to allow for probing
-                        }
-                    } else {
-                        try {
-                            GHCommit commit = ghRepository.getCommit(tagSha);
-                            tagDate = commit.getCommitDate().getTime();
-                        } catch (IOException e) {
-                            // ignore, if the tag doesn't exist, the probe will handle that correctly
-                            // we just need enough of a date value to allow for probing
-                        }
+                long tagDate = 0L;
+                if (refs.isAnnotatedTag(tagRef)) {
+                    // annotated tag object
+                    try {
+                        GHTagObject tagObject = ghRepository.getTagObject(tagSha);
+                        tagDate = tagObject.getTagger().getDate().getTime();
+                    } catch (IOException e) {
+                        // ignore, if the tag doesn't exist, the probe will handle that correctly
+                        // we just need enough of a date value to allow for probing
+                    }
+                } else {
+                    try {
+                        GHCommit commit = ghRepository.getCommit(tagSha);
+                        tagDate = commit.getCommitDate().getTime();
+                    } catch (IOException e) {
+                        // ignore, if the tag doesn't exist, the probe will handle that correctly
+                        // we just need enough of a date value to allow for probing
                     }
-                    listener.getLogger().format("Resolved %s as tag %s at revision %s%n", headName, headName,
-                            tagSha);
-                    return new GitTagSCMRevision(new AzureDevOpsRepoTagSCMHead(headName, tagDate), tagSha);
                 }
-            } catch (FileNotFoundException e) {
-                // ok it doesn't exist
+                listener.getLogger().format("Resolved %s as tag %s at revision %s%n", headName, headName,
+                        tagSha);
+                return new GitTagSCMRevision(new AzureDevOpsRepoTagSCMHead(headName, tagDate), tagSha);
             }
             listener.error("Could not resolve %s", headName);
 
@@ -1315,10 +1509,139 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
             // SCMHead subclass we cannot do anything here
             return null;
         } finally {
-            Connector.release(github);
+            session.close();
+        }
+    }
+
+    /**
+     * Lists the refs in the specified namespaces of the repository and remembers them for resolving head names. Each
+     * namespace is listed by its own request, and the requests run concurrently.
+     *
+     * @param ghRepository the repository.
+     * @param fullName     the full name of the repository.
+     * @param namespaces   the ref namespaces to list, e.g. {@link Constants#R_HEADS}.
+     * @return the snapshot of the refs.
+     * @throws IOException          if the refs could not be listed.
+     * @throws InterruptedException if interrupted.
+     */
+    @NonNull
+    private RefsSnapshot fetchRefsSnapshot(@NonNull GHRepository ghRepository, @NonNull String fullName,
+                                           @NonNull Set<String> namespaces)
+            throws IOException, InterruptedException {
+        List<Iterable<GHRef>> sources = new ArrayList<>(namespaces.size());
+        for (String namespace : namespaces) {
+            // e.g. refs/heads/ -> heads
+            String refType = namespace.substring(Constants.R_REFS.length(), namespace.length() - 1);
+            sources.add(emptyIfNotFound(ghRepository, refType, ghRepository.listRefs(refType).withPageSize(PAGE_SIZE)));
+        }
+        RefsSnapshot refs = snapshotOf(fullName, namespaces, sources);
+        this.refsSnapshot = refs;
+        return refs;
+    }
+
+    /**
+     * Looks up only the refs that a head name could resolve to, rather than listing whole namespaces. Each candidate
+     * is looked up by its own request, and the requests run concurrently. The result only covers the candidates, so
+     * it is not remembered for resolving other head names.
+     *
+     * @param ghRepository the repository.
+     * @param fullName     the full name of the repository.
+     * @param namespaces   the ref namespaces of the candidates.
+     * @param pullNumber   the number of the candidate pull request or {@code null} if the name is not a pull request.
+     * @param headName     the candidate branch or tag name.
+     * @return the snapshot of the candidate refs that exist.
+     * @throws IOException          if the refs could not be looked up.
+     * @throws InterruptedException if interrupted.
+     */
+    @NonNull
+    private static RefsSnapshot lookupRefs(@NonNull GHRepository ghRepository, @NonNull String fullName,
+                                           @NonNull Set<String> namespaces, @CheckForNull String pullNumber,
+                                           @NonNull String headName)
+            throws IOException, InterruptedException {
+        List<Iterable<GHRef>> sources = new ArrayList<>(3);
+        if (pullNumber != null) {
+            // refs/pull/N/ only holds the head and merge refs of the pull request
+            String refType = "pull/" + pullNumber;
+            sources.add(emptyIfNotFound(ghRepository, refType, ghRepository.listRefs(refType).withPageSize(PAGE_SIZE)));
+        }
+        sources.add(refNamed(ghRepository, "heads/" + headName));
+        sources.add(refNamed(ghRepository, "tags/" + headName));
+        return snapshotOf(fullName, namespaces, sources);
+    }
+
+    /**
+     * Reads the supplied ref listings concurrently into a snapshot.
+     *
+     * @param fullName   the full name of the repository.
+     * @param namespaces the ref namespaces that the refs were listed from.
+     * @param sources    the ref listings, each will be read on its own thread.
+     * @return the snapshot of the refs.
+     * @throws IOException          if the refs could not be listed.
+     * @throws InterruptedException if interrupted.
+     */
+    @NonNull
+    private static RefsSnapshot snapshotOf(@NonNull String fullName, @NonNull Set<String> namespaces,
+                                           @NonNull List<Iterable<GHRef>> sources)
+            throws IOException, InterruptedException {
+        List<PrefetchingIterable<GHRef>> listings = new ArrayList<>(sources.size());
+        try {
+            List<Iterator<GHRef>> iterators = new ArrayList<>(sources.size());
+            for (Iterable<GHRef> source : sources) {
+                PrefetchingIterable<GHRef> listing = new PrefetchingIterable<>(source, PAGE_SIZE, PREFETCH_PAGES);
+                listings.add(listing);
+                // creating the iterator starts the listing in the background
+                iterators.add(listing.iterator());
+            }
+            return RefsSnapshot.of(fullName, namespaces, Iterators.concat(iterators.iterator()));
+        } catch (WrappedException e) {
+            e.unwrap();
+            throw e;
+        } finally {
+            for (PrefetchingIterable<GHRef> listing : listings) {
+                listing.close();
+            }
         }
     }
 
+    /**
+     * Defers fetching a single ref until it is iterated, so that it can be fetched in the background. GitHub only
+     * returns the ref itself if the name matches exactly, otherwise it returns the refs that start with the name, so
+     * those are listed and only an exact match is kept.
+     *
+     * @param repo    the repository.
+     * @param refName the name of the ref without the {@code refs/} prefix, e.g. {@code heads/master}.
+     * @return the ref or nothing if it does not exist.
+     */
+    private static Iterable<GHRef> refNamed(final GHRepository repo, final String refName) {
+        return new Iterable<GHRef>() {
+            @Override
+            public Iterator<GHRef> iterator() {
+                try {
+                    return Collections.singletonList(repo.getRef(refName)).iterator();
+                } catch (FileNotFoundException e) {
+                    return Collections.<GHRef>emptyList().iterator();
+                } catch (IOException e) {
+                    // not a single ref, e.g. heads/release when only heads/release/1.0 exists
+                    try {
+                        List<GHRef> matches = new ArrayList<>(1);
+                        for (GHRef ref : repo.getRefs(refName)) {
+                            if ((Constants.R_REFS + refName).equals(ref.getRef())) {
+                                matches.add(ref);
+                            }
+                        }
+                        return matches.iterator();
+                    } catch (FileNotFoundException e1) {
+                        return Collections.<GHRef>emptyList().iterator();
+                    } catch (IOException e1) {
+                        // not a listing either, so it was a genuine failure
+                        e.addSuppressed(e1);
+                        throw new WrappedException(e);
+                    }
+                }
+            }
+        };
+    }
+
     @NonNull
     private Set<String> updateCollaboratorNames(@NonNull TaskListener listener, @CheckForNull StandardCredentials credentials,
                                                 @NonNull GHRepository ghRepository)
@@ -1329,17 +1652,24 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
             listener.getLogger().println("Anonymous cannot query list of collaborators, assuming none");
             return collaboratorNames = Collections.emptySet();
         } else {
+            Set<String> cached = CollaboratorCache.get(apiUri, credentials, repoOwner, repository);
+            if (cached != null) {
+                return collaboratorNames = cached;
+            }
             try {
-                return collaboratorNames = new HashSet<>(ghRepository.getCollaboratorNames());
+                return collaboratorNames = CollaboratorCache.put(apiUri, credentials, repoOwner, repository,
+                        ghRepository.getCollaboratorNames());
             } catch (FileNotFoundException e) {
                 // not permitted
                 listener.getLogger().println("Not permitted to query list of collaborators, assuming none");
-                return collaboratorNames = Collections.emptySet();
+                return collaboratorNames = CollaboratorCache.put(apiUri, credentials, repoOwner, repository,
+                        Collections.<String>emptySet());
             } catch (HttpException e) {
                 if (e.getResponseCode() == HttpServletResponse.SC_UNAUTHORIZED
                         || e.getResponseCode() == HttpServletResponse.SC_NOT_FOUND) {
                     listener.getLogger().println("Not permitted to query list of collaborators, assuming none");
-                    return collaboratorNames = Collections.emptySet();
+                    return collaboratorNames = CollaboratorCache.put(apiUri, credentials, repoOwner, repository,
+                            Collections.<String>emptySet());
                 } else {
                     throw e;
                 }
@@ -1347,16 +1677,31 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
         }
     }
 
-    private void checkApiUrlValidity(GitHub github, StandardCredentials credentials) throws IOException {
+    /**
+     * Opens a session on the repository, aborting rather than failing when the rate limit has been exceeded.
+     *
+     * @param credentials the credentials or {@code null} for anonymous access.
+     * @param fullName    the full name of the repository.
+     * @param listener    the listener to report the checks to.
+     * @return the session, which must be closed by the caller.
+     * @throws IOException          if the checks fail or the repository could not be retrieved.
+     * @throws InterruptedException if interrupted while waiting for the rate limit.
+     */
+    @NonNull
+    private RepositorySession openSession(@CheckForNull StandardCredentials credentials, @NonNull String fullName,
+                                          @NonNull TaskListener listener) throws IOException, InterruptedException {
         try {
-            Connector.checkApiUrlValidity(github, credentials);
-        } catch (HttpException e) {
-            String message = String.format("It seems %s is unreachable", apiUri == null ? GITHUB_URL : apiUri);
-            throw new IOException(message, e);
+            return RepositorySession.open(apiUri, credentials, fullName, listener);
+        } catch (RateLimitExceededException rle) {
+            throw new AbortException(rle.getMessage());
         }
     }
 
-    private static class WrappedException extends RuntimeException {
+    private void checkApiUrlValidity(GitHub github, StandardCredentials credentials) throws IOException {
+        RepositorySession.checkApiUrlValidity(apiUri, github, credentials);
+    }
+
+    static class WrappedException extends RuntimeException {
 
         public WrappedException(Throwable cause) {
             super(cause);
@@ -1383,67 +1728,74 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     protected SCMProbe createProbe(@NonNull SCMHead head, @CheckForNull final SCMRevision revision) throws IOException {
         StandardCredentials credentials = Connector.lookupScanCredentials((Item) getOwner(), apiUri, credentialsId);
         // Github client and validation
-        GitHub github = Connector.connect(apiUri, credentials);
+        String fullName = repoOwner + "/" + repository;
+        RepositorySession session;
         try {
-            String fullName = repoOwner + "/" + repository;
-            final GHRepository repo = github.getRepository(fullName);
-            return new AzureDevOpsRepoSCMProbe(github, repo, head, revision);
-        } catch (IOException | RuntimeException | Error e) {
-            Connector.release(github);
-            throw e;
+            session = RepositorySession.open(apiUri, credentials, fullName, new LogTaskListener(LOGGER, Level.FINE));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
         }
+        // the probe releases the connection when it is closed
+        return new AzureDevOpsRepoSCMProbe(session.getGitHub(), session.getRepository(), head, revision);
     }
 
     @Override
     @CheckForNull
     protected SCMRevision retrieve(SCMHead head, TaskListener listener) throws IOException, InterruptedException {
         StandardCredentials credentials = Connector.lookupScanCredentials((Item) getOwner(), apiUri, credentialsId);
+        String fullName = repoOwner + "/" + repository;
 
         // Github client and validation
-        GitHub github = Connector.connect(apiUri, credentials);
-        try {
-            checkApiUrlValidity(github, credentials);
-
-            try {
-                Connector.checkConnectionValidity(apiUri, listener, credentials, github);
-                Connector.checkApiRateLimit(listener, github);
-                String fullName = repoOwner + "/" + repository;
-                ghRepository = github.getRepository(fullName);
-                repositoryUrl = ghRepository.getHtmlUrl();
-                if (head instanceof PullRequestSCMHead) {
-                    PullRequestSCMHead prhead = (PullRequestSCMHead) head;
-                    int number = prhead.getNumber();
-                    GHPullRequest pr = ghRepository.getPullRequest(number);
-                    String baseHash;
-                    switch (prhead.getCheckoutStrategy()) {
-                        case MERGE:
-                            baseHash = ghRepository.getRef("heads/" + prhead.getTarget().getName()).getObject().getSha();
-                            break;
-                        default:
-                            baseHash = pr.getBase().getSha();
-                            break;
-                    }
-                    return new PullRequestSCMRevision(prhead, baseHash, pr.getHead().getSha());
-                } else if (head instanceof AzureDevOpsRepoTagSCMHead) {
-                    AzureDevOpsRepoTagSCMHead tagHead = (AzureDevOpsRepoTagSCMHead) head;
-                    GHRef tag = ghRepository.getRef("tags/" + tagHead.getName());
-                    String sha = tag.getObject().getSha();
-                    if ("tag".equalsIgnoreCase(tag.getObject().getType())) {
-                        // annotated tag object
-                        GHTagObject tagObject = ghRepository.getTagObject(sha);
-                        // we want the sha of the tagged commit not the tag object
-                        sha = tagObject.getObject().getSha();
-                    }
-                    return new GitTagSCMRevision(tagHead, sha);
-                } else {
-                    return new SCMRevisionImpl(head, ghRepository.getRef("heads/" + head.getName()).getObject().getSha());
+        try (RepositorySession session = RepositorySession.open(apiUri, credentials, fullName, listener)) {
+            GHRepository ghRepository = session.getRepository();
+            repositorySummary = RepositorySummary.of(ghRepository);
+            if (head instanceof PullRequestSCMHead) {
+                PullRequestSCMHead prhead = (PullRequestSCMHead) head;
+                int number = prhead.getNumber();
+                GHPullRequest pr = ghRepository.getPullRequest(number);
+                String baseHash;
+                switch (prhead.getCheckoutStrategy()) {
+                    case MERGE:
+                        baseHash = ghRepository.getRef("heads/" + prhead.getTarget().getName()).getObject().getSha();
+                        break;
+                    default:
+                        baseHash = pr.getBase().getSha();
+                        break;
+                }
+                return new PullRequestSCMRevision(prhead, baseHash, pr.getHead().getSha());
+            } else if (head instanceof AzureDevOpsRepoTagSCMHead) {
+                AzureDevOpsRepoTagSCMHead tagHead = (AzureDevOpsRepoTagSCMHead) head;
+                GHRef tag = ghRepository.getRef("tags/" + tagHead.getName());
+                String sha = tag.getObject().getSha();
+                if ("tag".equalsIgnoreCase(tag.getObject().getType())) {
+                    // annotated tag object
+                    GHTagObject tagObject = ghRepository.getTagObject(sha);
+                    // we want the sha of the tagged commit not the tag object
+                    sha = tagObject.getObject().getSha();
                 }
-            } catch (RateLimitExceededException rle) {
-                throw new AbortException(rle.getMessage());
+                return new GitTagSCMRevision(tagHead, sha);
+            } else {
+                return new SCMRevisionImpl(head, ghRepository.getRef("heads/" + head.getName()).getObject().getSha());
             }
-        } finally {
-            Connector.release(github);
+        } catch (RateLimitExceededException rle) {
+            throw new AbortException(rle.getMessage());
+        }
+    }
+
+    /**
+     * Returns the shared immutable copy of the supplied collaborator names.
+     *
+     * @param names the collaborator names.
+     * @return the shared immutable copy.
+     */
+    @NonNull
+    static Set<String> internCollaboratorNames(@NonNull Collection<String> names) {
+        Set<String> result = new HashSet<>(names.size() * 4 / 3 + 1);
+        for (String name : names) {
+            result.add(Util.intern(name));
         }
+        return collaboratorNamesInterner.intern(Collections.unmodifiableSet(result));
     }
 
     @Override
@@ -1453,13 +1805,15 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
 
     @CheckForNull
         /*package*/ URL getRepositoryUrl() {
-        return repositoryUrl;
+        RepositorySummary repositorySummary = this.repositorySummary;
+        return repositorySummary == null ? null : repositorySummary.getHtmlUrl();
     }
 
     @Deprecated
         // TODO remove once migration from 1.x is no longer supported
     PullRequestSource retrievePullRequestSource(int number) {
-        // we use a big honking great lock to prevent concurrent requests to github during job loading
+        // each source fetches its pull requests at most once, while the permits keep the number of sources
+        // querying concurrently during job loading bounded
         Map<Integer, PullRequestSource> pullRequestSourceMap;
         synchronized (pullRequestSourceMapLock) {
             pullRequestSourceMap = this.pullRequestSourceMap;
@@ -1472,11 +1826,13 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                             Connector.lookupScanCredentials((Item) getOwner(), apiUri, credentialsId);
                     LogTaskListener listener = new LogTaskListener(LOGGER, Level.INFO);
                     try {
-                        GitHub github = Connector.connect(apiUri, credentials);
+                        pullRequestSourceMapPermits.acquire();
+                        GitHub github = null;
                         try {
+                            github = Connector.connect(apiUri, credentials);
                             checkApiUrlValidity(github, credentials);
                             Connector.checkApiRateLimit(listener, github);
-                            ghRepository = github.getRepository(fullName);
+                            GHRepository ghRepository = github.getRepository(fullName);
                             LOGGER.log(Level.INFO, "Got remote pull requests from {0}", fullName);
                             int n = 0;
                             for (GHPullRequest pr : ghRepository.queryPullRequests().state(GHIssueState.OPEN).list()) {
@@ -1492,7 +1848,10 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                                 }
                             }
                         } finally {
-                            Connector.release(github);
+                            if (github != null) {
+                                Connector.release(github);
+                            }
+                            pullRequestSourceMapPermits.release();
                         }
                     } catch (IOException | InterruptedException e) {
                         LOGGER.log(Level.WARNING,
@@ -1535,7 +1894,13 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
             try (AzureDevOpsRepoSCMSourceRequest request = new AzureDevOpsRepoSCMSourceContext(null, SCMHeadObserver.none())
                     .withTraits(traits)
                     .newRequest(this, listener)) {
-                if (collaboratorNames != null) {
+                StandardCredentials credentials = Connector.lookupScanCredentials(
+                        (Item) getOwner(), apiUri, credentialsId
+                );
+                Set<String> cached = CollaboratorCache.get(apiUri, credentials, repoOwner, repository);
+                if (cached != null) {
+                    request.setCollaboratorNames(cached);
+                } else if (collaboratorNames != null) {
                     request.setCollaboratorNames(collaboratorNames);
                 } else {
                     request.setCollaboratorNames(new DeferredContributorNames(request, listener));
@@ -1594,12 +1959,12 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                     // pull request to this repository
                     int number = ((PullRequestSCMHead) head).getNumber();
                     url = repoLink.getUrl() + "/pull/" + number;
-                    metadataAction = pullRequestMetadataCache.get(number);
+                    metadataAction = pullRequestMetadataStore.getMetadata(number);
                     if (metadataAction == null) {
                         // best effort
                         metadataAction = new ObjectMetadataAction(null, null, url);
                     }
-                    ContributorMetadataAction contributor = pullRequestContributorCache.get(number);
+                    ContributorMetadataAction contributor = pullRequestMetadataStore.getContributor(number);
                     if (contributor != null) {
                         result.add(contributor);
                     }
@@ -1636,17 +2001,20 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
         List<Action> result = new ArrayList<>();
         result.add(new AzureDevOpsRepoRepoMetadataAction());
         StandardCredentials credentials = Connector.lookupScanCredentials((Item) getOwner(), apiUri, credentialsId);
-        GitHub hub = Connector.connect(apiUri, credentials);
+        RepositorySession session;
         try {
-            Connector.checkConnectionValidity(apiUri, listener, credentials, hub);
-            try {
-                ghRepository = hub.getRepository(getRepoOwner() + '/' + repository);
-                repositoryUrl = ghRepository.getHtmlUrl();
-            } catch (FileNotFoundException e) {
-                throw new AbortException(
-                        String.format("Invalid scan credentials when using %s to connect to %s/%s on %s",
-                                credentials == null ? "anonymous access" : CredentialsNameProvider.name(credentials), repoOwner, repository, apiUri == null ? GITHUB_URL : apiUri));
-            }
+            session = RepositorySession.open(apiUri, credentials, getRepoOwner() + '/' + repository, listener);
+        } catch (FileNotFoundException e) {
+            throw new AbortException(
+                    String.format("Invalid scan credentials when using %s to connect to %s/%s on %s",
+                            credentials == null ? "anonymous access" : CredentialsNameProvider.name(credentials), repoOwner, repository, apiUri == null ? GITHUB_URL : apiUri));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+        try {
+            GHRepository ghRepository = session.getRepository();
+            repositorySummary = RepositorySummary.of(ghRepository);
             result.add(new ObjectMetadataAction(null, ghRepository.getDescription(), Util.fixEmpty(ghRepository.getHomepage())));
             result.add(new AzureDevOpsRepoLink("icon-github-repo", ghRepository.getHtmlUrl()));
             if (StringUtils.isNotBlank(ghRepository.getDefaultBranch())) {
@@ -1654,7 +2022,7 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
             }
             return result;
         } finally {
-            Connector.release(hub);
+            session.close();
         }
     }
 
@@ -1663,6 +2031,8 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
      */
     @Override
     public void afterSave() {
+        traitsSnapshot = null;
+        lastFullScan = null;
         SCMSourceOwner owner = getOwner();
         if (owner != null) {
             GitHubWebHook.get().registerHookFor(owner);
@@ -1673,6 +2043,10 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     @Extension
     public static class DescriptorImpl extends SCMSourceDescriptor {
 
+        /**
+         * The most repository names offered by the type-ahead.
+         */
+        private static final int TYPE_AHEAD_LIMIT = 50;
         @Deprecated
         @Restricted(DoNotUse.class)
         @RestrictedSince("2.2.0")
@@ -1714,19 +2088,6 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
             XSTREAM2.addCompatibilityAlias("org.jenkinsci.plugins.azure_devops_repo_branch_source.OriginAzureDevOpsRepoSCMSource", AzureDevOpsRepoSCMSource.class);
         }
 
-        /**
-         * Creates a list box model from a list of values.
-         * ({@link ListBoxModel#ListBoxModel(Collection)} takes {@link ListBoxModel.Option}s,
-         * not {@link String}s, and those are not {@link Comparable}.)
-         */
-        private static ListBoxModel nameAndValueModel(Collection<String> items) {
-            ListBoxModel model = new ListBoxModel();
-            for (String item : items) {
-                model.add(item);
-            }
-            return model;
-        }
-
         public ListBoxModel doFillCredentialsIdItems(@CheckForNull @AncestorInPath Item context,
                                                      @QueryParameter String apiUri,
                                                      @QueryParameter String credentialsId) {
@@ -1827,7 +2188,8 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
         }
 
         @RequirePOST
-        public ListBoxModel doFillOrganizationItems(@CheckForNull @AncestorInPath Item context, @QueryParameter String apiUri,
+        public ListBoxModel doFillOrganizationItems(@CheckForNull @AncestorInPath Item context,
+                                                    @QueryParameter final String apiUri,
                                                     @QueryParameter String credentialsId) throws IOException {
             if (credentialsId == null) {
                 return new ListBoxModel();
@@ -1840,12 +2202,33 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                 return new ListBoxModel(); // not permitted to try connecting with these credentials
             }
             try {
-                StandardCredentials credentials = Connector.lookupScanCredentials(context, apiUri, credentialsId);
-                GitHub github = Connector.connect(apiUri, credentials);
-                if (!github.isAnonymous()) {
+                final StandardCredentials credentials = Connector.lookupScanCredentials(context, apiUri, credentialsId);
+                Map<String, String> organizations = credentials == null
+                        ? null
+                        : RepositoryListingCache.organizations(apiUri, credentials,
+                        new RepositoryListingCache.Loader<Map<String, String>>() {
+                            @Override
+                            public Map<String, String> load() throws IOException {
+                                GitHub github = Connector.connect(apiUri, credentials);
+                                try {
+                                    if (github.isAnonymous()) {
+                                        return null;
+                                    }
+                                    Map<String, String> result = new TreeMap<>();
+                                    for (Map.Entry<String, GHOrganization> entry
+                                            : github.getMyOrganizations().entrySet()) {
+                                        result.put(entry.getKey(), entry.getValue().getAvatarUrl());
+                                    }
+                                    return Collections.unmodifiableMap(result);
+                                } finally {
+                                    Connector.release(github);
+                                }
+                            }
+                        });
+                if (organizations != null) {
                     ListBoxModel model = new ListBoxModel();
-                    for (Map.Entry<String, GHOrganization> entry : github.getMyOrganizations().entrySet()) {
-                        model.add(entry.getKey(), entry.getValue().getAvatarUrl());
+                    for (Map.Entry<String, String> entry : organizations.entrySet()) {
+                        model.add(entry.getKey(), entry.getValue());
                     }
                     return model;
                 }
@@ -1858,63 +2241,103 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
             throw new FillErrorResponse(Messages.AzureDevOpsRepoSCMSource_CouldNotConnectionGithub(credentialsId), true);
         }
 
+        /**
+         * Type-ahead for the repository name, returning only the repositories of the owner that match what has been
+         * typed so far. The repository field depends on itself, so the names are searched again whenever it changes.
+         *
+         * @param context       the context.
+         * @param apiUri        the API endpoint.
+         * @param credentialsId the credentials.
+         * @param repoOwner     the owner.
+         * @param repository    what has been typed so far.
+         * @return the matching repository names.
+         * @throws IOException if the repositories could not be listed.
+         */
         @RequirePOST
-        public ListBoxModel doFillRepositoryItems(@CheckForNull @AncestorInPath Item context, @QueryParameter String apiUri,
-                                                  @QueryParameter String credentialsId, @QueryParameter String repoOwner) throws IOException {
+        public ComboBoxModel doFillRepositoryItems(@CheckForNull @AncestorInPath Item context, @QueryParameter String apiUri,
+                                                   @QueryParameter String credentialsId, @QueryParameter String repoOwner,
+                                                   @QueryParameter String repository) throws IOException {
 
             repoOwner = Util.fixEmptyAndTrim(repoOwner);
             if (repoOwner == null) {
-                return new ListBoxModel();
+                return new ComboBoxModel();
             }
             if (context == null && !Jenkins.getActiveInstance().hasPermission(Jenkins.ADMINISTER) ||
                     context != null && !context.hasPermission(Item.EXTENDED_READ)) {
-                return new ListBoxModel(); // not supposed to be seeing this form
+                return new ComboBoxModel(); // not supposed to be seeing this form
             }
             if (context != null && !context.hasPermission(CredentialsProvider.USE_ITEM)) {
-                return new ListBoxModel(); // not permitted to try connecting with these credentials
+                return new ComboBoxModel(); // not permitted to try connecting with these credentials
             }
             try {
-                StandardCredentials credentials = Connector.lookupScanCredentials(context, apiUri, credentialsId);
-                GitHub github = Connector.connect(apiUri, credentials);
-                try {
+                Collection<String> names = repositoryNames(context, apiUri, credentialsId, repoOwner);
+                if (names != null) {
+                    String typed = Util.fixEmptyAndTrim(repository);
+                    if (typed != null && names.contains(typed)) {
+                        // a repository has been picked already, so offer the others as well
+                        typed = null;
+                    }
+                    return new ComboBoxModel(RepositoryListingCache.matching(names, typed, TYPE_AHEAD_LIMIT));
+                }
+            } catch (FillErrorResponse e) {
+                throw e;
+            } catch (Throwable e) {
+                LOGGER.log(Level.SEVERE, e.getMessage(), e);
+                throw new FillErrorResponse(e.getMessage(), false);
+            }
+            throw new FillErrorResponse(Messages.AzureDevOpsRepoSCMSource_NoMatchingOwner(repoOwner), true);
+        }
 
-                    if (!github.isAnonymous()) {
-                        GHMyself myself;
-                        try {
-                            myself = github.getMyself();
-                        } catch (IllegalStateException e) {
-                            LOGGER.log(Level.WARNING, e.getMessage(), e);
-                            throw new FillErrorResponse(e.getMessage(), false);
-                        } catch (IOException e) {
-                            LogRecord lr = new LogRecord(Level.WARNING,
-                                    "Exception retrieving the repositories of the owner {0} on {1} with credentials {2}");
-                            lr.setThrown(e);
-                            lr.setParameters(new Object[]{
-                                    repoOwner, apiUri,
-                                    credentials == null
-                                            ? "anonymous access"
-                                            : CredentialsNameProvider.name(credentials)
-                            });
-                            LOGGER.log(lr);
-                            throw new FillErrorResponse(e.getMessage(), false);
-                        }
-                        if (myself != null && repoOwner.equalsIgnoreCase(myself.getLogin())) {
-                            Set<String> result = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-                            for (GHRepository repo : myself.listRepositories(100, GHMyself.RepositoryListFilter.OWNER)) {
-                                result.add(repo.getName());
-                            }
-                            return nameAndValueModel(result);
+        /**
+         * Gets the names of the repositories of an owner, from the cache when possible.
+         *
+         * @param context       the context.
+         * @param apiUri        the API endpoint.
+         * @param credentialsId the credentials.
+         * @param repoOwner     the owner.
+         * @return the names or {@code null} if the owner does not exist.
+         * @throws IOException if the repositories could not be listed.
+         */
+        @CheckForNull
+        private static Collection<String> repositoryNames(@CheckForNull Item context, final String apiUri,
+                                                          String credentialsId, @NonNull final String repoOwner)
+                throws IOException {
+            final StandardCredentials credentials = Connector.lookupScanCredentials(context, apiUri, credentialsId);
+            return RepositoryListingCache.repositories(apiUri, credentials, repoOwner,
+                    new RepositoryListingCache.Loader<Collection<String>>() {
+                        @Override
+                        public Collection<String> load() throws IOException {
+                            return listRepositoryNames(apiUri, credentials, repoOwner);
                         }
-                    }
+                    });
+        }
 
-                    GHOrganization org = null;
+        /**
+         * Lists the names of the repositories of an owner.
+         *
+         * @param apiUri      the API endpoint.
+         * @param credentials the credentials or {@code null} for anonymous access.
+         * @param repoOwner   the owner.
+         * @return the names or {@code null} if the owner does not exist.
+         * @throws IOException if the repositories could not be listed.
+         */
+        @CheckForNull
+        private static Collection<String> listRepositoryNames(@CheckForNull String apiUri,
+                                                              @CheckForNull StandardCredentials credentials,
+                                                              @NonNull String repoOwner) throws IOException {
+            String credentialsId = credentials == null ? null : credentials.getId();
+            GitHub github = Connector.connect(apiUri, credentials);
+            try {
+                if (!github.isAnonymous()) {
+                    GHMyself myself;
                     try {
-                        org = github.getOrganization(repoOwner);
-                    } catch (FileNotFoundException fnf) {
-                        LOGGER.log(Level.FINE, "There is not any GH Organization named {0}", repoOwner);
+                        myself = github.getMyself();
+                    } catch (IllegalStateException e) {
+                        LOGGER.log(Level.WARNING, e.getMessage(), e);
+                        throw new FillErrorResponse(e.getMessage(), false);
                     } catch (IOException e) {
                         LogRecord lr = new LogRecord(Level.WARNING,
-                                "Exception retrieving the repositories of the organization {0} on {1} with credentials {2}");
+                                "Exception retrieving the repositories of the owner {0} on {1} with credentials {2}");
                         lr.setThrown(e);
                         lr.setParameters(new Object[]{
                                 repoOwner, apiUri,
@@ -1925,55 +2348,76 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                         LOGGER.log(lr);
                         throw new FillErrorResponse(e.getMessage(), false);
                     }
-                    if (org != null && repoOwner.equalsIgnoreCase(org.getLogin())) {
+                    if (myself != null && repoOwner.equalsIgnoreCase(myself.getLogin())) {
                         Set<String> result = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-                        LOGGER.log(Level.FINE, "as {0} looking for repositories in {1}",
-                                new Object[]{credentialsId, repoOwner});
-                        for (GHRepository repo : org.listRepositories(100)) {
-                            LOGGER.log(Level.FINE, "as {0} found {1}/{2}",
-                                    new Object[]{credentialsId, repoOwner, repo.getName()});
+                        for (GHRepository repo : myself.listRepositories(100, GHMyself.RepositoryListFilter.OWNER)) {
                             result.add(repo.getName());
                         }
-                        LOGGER.log(Level.FINE, "as {0} result of {1} is {2}",
-                                new Object[]{credentialsId, repoOwner, result});
-                        return nameAndValueModel(result);
+                        return Collections.unmodifiableSet(result);
                     }
+                }
 
-                    GHUser user = null;
-                    try {
-                        user = github.getUser(repoOwner);
-                    } catch (FileNotFoundException fnf) {
-                        LOGGER.log(Level.FINE, "There is not any GH User named {0}", repoOwner);
-                    } catch (IOException e) {
-                        LogRecord lr = new LogRecord(Level.WARNING,
-                                "Exception retrieving the repositories of the user {0} on {1} with credentials {2}");
-                        lr.setThrown(e);
-                        lr.setParameters(new Object[]{
-                                repoOwner, apiUri,
-                                credentials == null
-                                        ? "anonymous access"
-                                        : CredentialsNameProvider.name(credentials)
-                        });
-                        LOGGER.log(lr);
-                        throw new FillErrorResponse(e.getMessage(), false);
+                GHOrganization org = null;
+                try {
+                    org = github.getOrganization(repoOwner);
+                } catch (FileNotFoundException fnf) {
+                    LOGGER.log(Level.FINE, "There is not any GH Organization named {0}", repoOwner);
+                } catch (IOException e) {
+                    LogRecord lr = new LogRecord(Level.WARNING,
+                            "Exception retrieving the repositories of the organization {0} on {1} with credentials {2}");
+                    lr.setThrown(e);
+                    lr.setParameters(new Object[]{
+                            repoOwner, apiUri,
+                            credentials == null
+                                    ? "anonymous access"
+                                    : CredentialsNameProvider.name(credentials)
+                    });
+                    LOGGER.log(lr);
+                    throw new FillErrorResponse(e.getMessage(), false);
+                }
+                if (org != null && repoOwner.equalsIgnoreCase(org.getLogin())) {
+                    Set<String> result = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+                    LOGGER.log(Level.FINE, "as {0} looking for repositories in {1}",
+                            new Object[]{credentialsId, repoOwner});
+                    for (GHRepository repo : org.listRepositories(100)) {
+                        LOGGER.log(Level.FINE, "as {0} found {1}/{2}",
+                                new Object[]{credentialsId, repoOwner, repo.getName()});
+                        result.add(repo.getName());
                     }
-                    if (user != null && repoOwner.equalsIgnoreCase(user.getLogin())) {
-                        Set<String> result = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
-                        for (GHRepository repo : user.listRepositories(100)) {
-                            result.add(repo.getName());
-                        }
-                        return nameAndValueModel(result);
+                    LOGGER.log(Level.FINE, "as {0} result of {1} is {2}",
+                            new Object[]{credentialsId, repoOwner, result});
+                    return Collections.unmodifiableSet(result);
+                }
+
+                GHUser user = null;
+                try {
+                    user = github.getUser(repoOwner);
+                } catch (FileNotFoundException fnf) {
+                    LOGGER.log(Level.FINE, "There is not any GH User named {0}", repoOwner);
+                } catch (IOException e) {
+                    LogRecord lr = new LogRecord(Level.WARNING,
+                            "Exception retrieving the repositories of the user {0} on {1} with credentials {2}");
+                    lr.setThrown(e);
+                    lr.setParameters(new Object[]{
+                            repoOwner, apiUri,
+                            credentials == null
+                                    ? "anonymous access"
+                                    : CredentialsNameProvider.name(credentials)
+                    });
+                    LOGGER.log(lr);
+                    throw new FillErrorResponse(e.getMessage(), false);
+                }
+                if (user != null && repoOwner.equalsIgnoreCase(user.getLogin())) {
+                    Set<String> result = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+                    for (GHRepository repo : user.listRepositories(100)) {
+                        result.add(repo.getName());
                     }
-                } finally {
-                    Connector.release(github);
+                    return Collections.unmodifiableSet(result);
                 }
-            } catch (FillErrorResponse e) {
-                throw e;
-            } catch (Throwable e) {
-                LOGGER.log(Level.SEVERE, e.getMessage(), e);
-                throw new FillErrorResponse(e.getMessage(), false);
+            } finally {
+                Connector.release(github);
             }
-            throw new FillErrorResponse(Messages.AzureDevOpsRepoSCMSource_NoMatchingOwner(repoOwner), true);
+            return null;
         }
 
         public List<NamedArrayList<? extends SCMTraitDescriptor<?>>> getTraitsDescriptorLists() {
@@ -2019,9 +2463,10 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
 
     }
 
-    private static class LazyBranches extends LazyIterable<GHBranch> {
+    private static class LazyBranches extends LazyIterable<GHBranch> implements Closeable {
         private final AzureDevOpsRepoSCMSourceRequest request;
         private final GHRepository repo;
+        private PrefetchingIterable<GHBranch> prefetching;
 
         public LazyBranches(AzureDevOpsRepoSCMSourceRequest request, GHRepository repo) {
             this.request = request;
@@ -2044,32 +2489,148 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                         return Collections.emptyList();
                     }
                 }
-                request.listener().getLogger().format("%n  Getting remote branches...%n");
+                HeadNameScope scope = request.getHeadNameScope();
+                if (scope == null) {
+                    request.listener().getLogger().format("%n  Getting remote branches...%n");
+                } else {
+                    request.listener().getLogger().format("%n  Getting remote branches matching %s...%n", scope);
+                }
                 // local optimization: always try the default branch first in any search
-                List<GHBranch> values = new ArrayList<>(repo.getBranches().values());
                 final String defaultBranch = StringUtils.defaultIfBlank(repo.getDefaultBranch(), "master");
-                Collections.sort(values, new Comparator<GHBranch>() {
-                    @Override
-                    public int compare(GHBranch o1, GHBranch o2) {
-                        if (defaultBranch.equals(o1.getName())) {
-                            return -1;
-                        }
-                        if (defaultBranch.equals(o2.getName())) {
-                            return 1;
+                List<Iterable<GHBranch>> branches = new ArrayList<>();
+                if (scope == null || scope.contains(defaultBranch)) {
+                    try {
+                        branches.add(Collections.singletonList(repo.getBranch(defaultBranch)));
+                    } catch (FileNotFoundException e) {
+                        // empty repository or the default branch has been deleted
+                    }
+                }
+                if (scope == null) {
+                    // stream the remaining branches a page at a time rather than collecting all of them up front
+                    branches.add(branchesOf(repo, "heads", defaultBranch));
+                } else {
+                    for (String name : scope.getNames()) {
+                        if (!name.equals(defaultBranch)) {
+                            try {
+                                branches.add(Collections.singletonList(repo.getBranch(name)));
+                            } catch (FileNotFoundException e) {
+                                // branch does not currently exist
+                            }
                         }
-                        return 0;
                     }
-                });
-                return values;
+                    for (String prefix : scope.getPrefixes()) {
+                        // git does not allow a ref to also be a directory of refs, so listing by the prefix
+                        // without the trailing slash will return only the refs within
+                        branches.add(branchesOf(repo, "heads/" + StringUtils.removeEnd(prefix, "/"), defaultBranch));
+                    }
+                }
+                prefetching = new PrefetchingIterable<>(Iterables.concat(branches), PAGE_SIZE, PREFETCH_PAGES);
+                return prefetching;
             } catch (IOException | InterruptedException e) {
                 throw new AzureDevOpsRepoSCMSource.WrappedException(e);
             }
         }
+
+        /**
+         * Streams the branches with the specified ref path prefix.
+         *
+         * @param repo    the repository.
+         * @param refType the ref path prefix, e.g. {@code heads}.
+         * @param skip    the name of a branch that has already been fetched.
+         * @return the branches.
+         * @throws IOException if the listing could not be started.
+         */
+        private static Iterable<GHBranch> branchesOf(final GHRepository repo, String refType, final String skip)
+                throws IOException {
+            final Iterable<GHRef> refs = emptyIfNotFound(repo, refType, repo.listRefs(refType).withPageSize(PAGE_SIZE));
+            return new Iterable<GHBranch>() {
+                @Override
+                public Iterator<GHBranch> iterator() {
+                    final Iterator<GHRef> iterator = refs.iterator();
+                    return new Iterator<GHBranch>() {
+                        private GHBranch next;
+
+                        @Override
+                        public boolean hasNext() {
+                            while (next == null && iterator.hasNext()) {
+                                GHRef ref = iterator.next();
+                                String name = ref.getRef();
+                                if (name.startsWith(Constants.R_HEADS)) {
+                                    name = name.substring(Constants.R_HEADS.length());
+                                    if (!skip.equals(name)) {
+                                        next = new RefBranch(repo, name, ref.getObject().getSha());
+                                    }
+                                }
+                            }
+                            return next != null;
+                        }
+
+                        @Override
+                        public GHBranch next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            GHBranch result = next;
+                            next = null;
+                            return result;
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException("remove");
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (prefetching != null) {
+                prefetching.close();
+            }
+        }
+    }
+
+    /**
+     * A {@link GHBranch} built from the {@link GHRef} of a branch, which is all we get when streaming the branches.
+     */
+    private static class RefBranch extends GHBranch {
+        private final GHRepository owner;
+        private final String name;
+        private final String sha1;
+
+        RefBranch(GHRepository owner, String name, String sha1) {
+            this.owner = owner;
+            this.name = name;
+            this.sha1 = sha1;
+        }
+
+        @Override
+        public GHRepository getOwner() {
+            return owner;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getSHA1() {
+            return sha1;
+        }
+
+        @Override
+        public String toString() {
+            return "Branch:" + name + " in " + owner.getFullName();
+        }
     }
 
-    private static class LazyTags extends LazyIterable<GHRef> {
+    private static class LazyTags extends LazyIterable<GHRef> implements Closeable {
         private final AzureDevOpsRepoSCMSourceRequest request;
         private final GHRepository repo;
+        private PrefetchingIterable<GHRef> prefetching;
 
         public LazyTags(AzureDevOpsRepoSCMSourceRequest request, GHRepository repo) {
             this.request = request;
@@ -2086,98 +2647,148 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                     request.listener().getLogger().format("%n  Getting remote tag %s...%n", tagName);
                     return Collections.singletonList(repo.getRef("tags/" + tagName));
                 }
-                request.listener().getLogger().format("%n  Getting remote tags...%n");
-                // GitHub will give a 404 if the repository does not have any tags
-                // we could rework the code that iterates to expect the 404, but that
-                // would mean leaking the strange behaviour in every trait that consults the list
-                // of tags. (And GitHub API is probably correct in throwing the GHFileNotFoundException
-                // from a PagedIterable, so we don't want to fix that)
-                //
-                // Instead we just return a wrapped iterator that does the right thing.
-                final Iterable<GHRef> iterable = repo.listRefs("tags");
-                return new Iterable<GHRef>() {
+                HeadNameScope scope = request.getHeadNameScope();
+                if (scope == null) {
+                    request.listener().getLogger().format("%n  Getting remote tags...%n");
+                    prefetching = new PrefetchingIterable<>(
+                            emptyIfNotFound(repo, "tags", repo.listRefs("tags").withPageSize(PAGE_SIZE)),
+                            PAGE_SIZE, PREFETCH_PAGES
+                    );
+                    return prefetching;
+                }
+                request.listener().getLogger().format("%n  Getting remote tags matching %s...%n", scope);
+                List<Iterable<GHRef>> tags = new ArrayList<>();
+                for (String name : scope.getNames()) {
+                    try {
+                        tags.add(Collections.singletonList(repo.getRef("tags/" + name)));
+                    } catch (FileNotFoundException e) {
+                        // tag does not currently exist
+                    }
+                }
+                for (String prefix : scope.getPrefixes()) {
+                    String refType = "tags/" + StringUtils.removeEnd(prefix, "/");
+                    tags.add(emptyIfNotFound(repo, refType, repo.listRefs(refType).withPageSize(PAGE_SIZE)));
+                }
+                prefetching = new PrefetchingIterable<>(Iterables.concat(tags), PAGE_SIZE, PREFETCH_PAGES);
+                return prefetching;
+            } catch (IOException | InterruptedException e) {
+                throw new AzureDevOpsRepoSCMSource.WrappedException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (prefetching != null) {
+                prefetching.close();
+            }
+        }
+    }
+
+    /**
+     * GitHub will give a 404 if the repository does not have any refs of the requested type. We could rework the
+     * code that iterates to expect the 404, but that would mean leaking the strange behaviour in every trait that
+     * consults the list of refs. (And GitHub API is probably correct in throwing the GHFileNotFoundException
+     * from a PagedIterable, so we don't want to fix that)
+     * <p>
+     * Instead we just return a wrapped iterator that does the right thing.
+     *
+     * @param repo     the repository.
+     * @param refType  the type of refs being listed, e.g. {@code tags}.
+     * @param iterable the listing of the refs.
+     * @return the listing of the refs which is empty if there are none of the requested type.
+     */
+    private static Iterable<GHRef> emptyIfNotFound(final GHRepository repo, final String refType,
+                                                   final Iterable<GHRef> iterable) {
+        return new Iterable<GHRef>() {
+            @Override
+            public Iterator<GHRef> iterator() {
+                final Iterator<GHRef> iterator;
+                try {
+                    iterator = iterable.iterator();
+                } catch (Error e) {
+                    if (e.getCause() instanceof GHFileNotFoundException) {
+                        return Collections.<GHRef>emptyList().iterator();
+                    }
+                    throw e;
+                }
+                return new Iterator<GHRef>() {
+                    boolean hadAtLeastOne;
+                    boolean hasNone;
+
                     @Override
-                    public Iterator<GHRef> iterator() {
-                        final Iterator<GHRef> iterator;
+                    public boolean hasNext() {
                         try {
-                            iterator = iterable.iterator();
+                            boolean hasNext = iterator.hasNext();
+                            hadAtLeastOne = hadAtLeastOne || hasNext;
+                            return hasNext;
                         } catch (Error e) {
+                            // pre https://github.com/kohsuke/github-api/commit
+                            // /a17ce04552ddd3f6bd8210c740184e6c7ad13ae4
+                            // we at least got the cause, even if wrapped in an Error
                             if (e.getCause() instanceof GHFileNotFoundException) {
-                                return Collections.<GHRef>emptyList().iterator();
+                                return false;
                             }
                             throw e;
-                        }
-                        return new Iterator<GHRef>() {
-                            boolean hadAtLeastOne;
-                            boolean hasNone;
-
-                            @Override
-                            public boolean hasNext() {
+                        } catch (GHException e) {
+                            // JENKINS-52397 I have no clue why https://github.com/kohsuke/github-api/commit
+                            // /a17ce04552ddd3f6bd8210c740184e6c7ad13ae4 does what it does, but it makes
+                            // it rather difficult to distinguish between a network outage and the file
+                            // not found.
+                            if (hadAtLeastOne) {
+                                throw e;
+                            }
+                            if (refType.indexOf('/') != -1) {
                                 try {
-                                    boolean hasNext = iterator.hasNext();
-                                    hadAtLeastOne = hadAtLeastOne || hasNext;
-                                    return hasNext;
-                                } catch (Error e) {
-                                    // pre https://github.com/kohsuke/github-api/commit
-                                    // /a17ce04552ddd3f6bd8210c740184e6c7ad13ae4
-                                    // we at least got the cause, even if wrapped in an Error
-                                    if (e.getCause() instanceof GHFileNotFoundException) {
-                                        return false;
-                                    }
-                                    throw e;
-                                } catch (GHException e) {
-                                    // JENKINS-52397 I have no clue why https://github.com/kohsuke/github-api/commit
-                                    // /a17ce04552ddd3f6bd8210c740184e6c7ad13ae4 does what it does, but it makes
-                                    // it rather difficult to distinguish between a network outage and the file
-                                    // not found.
-                                    if (hadAtLeastOne) {
-                                        throw e;
-                                    }
-                                    try {
-                                        hasNone = hasNone || repo.getRefs("tags").length == 0;
-                                        if (hasNone) return false;
-                                        throw e;
-                                    } catch (FileNotFoundException e1) {
-                                        hasNone = true;
-                                        return false;
-                                    } catch (IOException e1) {
-                                        e.addSuppressed(e1);
-                                        throw e;
-                                    }
+                                    // a ref with exactly the prefix name is returned as a single object, but
+                                    // then there cannot be any refs within the prefix
+                                    repo.getRef(refType);
+                                    hasNone = true;
+                                    return false;
+                                } catch (IOException e1) {
+                                    // not a single ref, so it was a genuine failure
                                 }
                             }
-
-                            @Override
-                            public GHRef next() {
-                                if (!hasNext()) {
-                                    throw new NoSuchElementException();
-                                }
-                                return iterator.next();
+                            try {
+                                hasNone = hasNone || repo.getRefs(refType).length == 0;
+                                if (hasNone) return false;
+                                throw e;
+                            } catch (FileNotFoundException e1) {
+                                hasNone = true;
+                                return false;
+                            } catch (IOException e1) {
+                                e.addSuppressed(e1);
+                                throw e;
                             }
+                        }
+                    }
 
-                            @Override
-                            public void remove() {
-                                throw new UnsupportedOperationException("remove");
-                            }
-                        };
+                    @Override
+                    public GHRef next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return iterator.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException("remove");
                     }
                 };
-            } catch (IOException | InterruptedException e) {
-                throw new AzureDevOpsRepoSCMSource.WrappedException(e);
             }
-        }
+        };
     }
 
     private static class MergabilityWitness
             implements SCMSourceRequest.Witness<PullRequestSCMHead, PullRequestSCMRevision> {
         private final GHPullRequest pr;
         private final ChangeRequestCheckoutStrategy strategy;
-        private final TaskListener listener;
+        private final ScanLog scanLog;
 
-        public MergabilityWitness(GHPullRequest pr, ChangeRequestCheckoutStrategy strategy, TaskListener listener) {
+        public MergabilityWitness(GHPullRequest pr, ChangeRequestCheckoutStrategy strategy, ScanLog scanLog) {
             this.pr = pr;
             this.strategy = strategy;
-            this.listener = listener;
+            this.scanLog = scanLog;
         }
 
         @Override
@@ -2193,10 +2804,10 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                 if (Boolean.FALSE.equals(mergeable)) {
                     switch (strategy) {
                         case MERGE:
-                            listener.getLogger().format("      Not mergeable, build likely to fail%n");
+                            scanLog.detail("      Not mergeable, build likely to fail", true);
                             break;
                         default:
-                            listener.getLogger().format("      Not mergeable, but will be built anyway%n");
+                            scanLog.detail("      Not mergeable, but will be built anyway", true);
                             break;
                     }
                 }
@@ -2205,28 +2816,49 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     }
 
     private static class CriteriaWitness implements SCMSourceRequest.Witness {
-        private final TaskListener listener;
+        private final ScanLog scanLog;
+        private final Map<SCMHead, SCMRevision> observed;
 
-        public CriteriaWitness(TaskListener listener) {
-            this.listener = listener;
+        public CriteriaWitness(ScanLog scanLog, Map<SCMHead, SCMRevision> observed) {
+            this.scanLog = scanLog;
+            this.observed = observed;
         }
 
         @Override
         public void record(@NonNull SCMHead head, SCMRevision revision, boolean isMatch) {
+            scanLog.outcome(isMatch);
             if (isMatch) {
-                listener.getLogger().format("    Met criteria%n");
-            } else {
-                listener.getLogger().format("    Does not meet criteria%n");
+                observed.put(head, revision);
             }
         }
     }
 
+    /**
+     * The heads observed by a scan.
+     */
+    private static final class ObservedHeads {
+        /**
+         * When the full scan completed.
+         */
+        private final long completed;
+        /**
+         * The observed heads and their revisions.
+         */
+        private final Map<SCMHead, SCMRevision> heads;
+
+        private ObservedHeads(long completed, Map<SCMHead, SCMRevision> heads) {
+            this.completed = completed;
+            this.heads = heads;
+        }
+    }
+
     private class LazyPullRequests extends LazyIterable<GHPullRequest> implements Closeable {
         private final AzureDevOpsRepoSCMSourceRequest request;
         private final GHRepository repo;
         private Set<Integer> pullRequestMetadataKeys = new HashSet<>();
         private boolean fullScanRequested = false;
         private boolean iterationCompleted = false;
+        private PrefetchingIterable<GHPullRequest> prefetching;
 
         public LazyPullRequests(AzureDevOpsRepoSCMSourceRequest request, GHRepository repo) {
             this.request = request;
@@ -2256,27 +2888,55 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                     request.listener().getLogger().format(
                             "%n  Getting remote pull requests from branch %s...%n", branchName
                     );
-                    return new CacheUdatingIterable(repo.queryPullRequests()
+                    return new CacheUdatingIterable(prefetch(repo.queryPullRequests()
                             .state(GHIssueState.OPEN)
                             .head(repo.getOwnerName() + ":" + branchName)
-                            .list());
+                            .list()));
+                }
+                HeadNameScope scope = request.getHeadNameScope();
+                // the branch filters need every origin pull request, not just those targeting the scoped branch
+                String baseName = scope == null || request.isFetchOriginPRHeads() ? null : scope.getSingleName();
+                if (baseName != null) {
+                    // the head filters apply to the target branch of pull requests
+                    request.listener().getLogger().format(
+                            "%n  Getting remote pull requests targeting branch %s...%n", baseName
+                    );
+                    return new CacheUdatingIterable(prefetch(repo.queryPullRequests()
+                            .state(GHIssueState.OPEN)
+                            .base(baseName)
+                            .list()));
                 }
                 request.listener().getLogger().format("%n  Getting remote pull requests...%n");
                 fullScanRequested = true;
-                return new CacheUdatingIterable(LazyPullRequests.this.repo.queryPullRequests()
+                return new CacheUdatingIterable(prefetch(LazyPullRequests.this.repo.queryPullRequests()
                         .state(GHIssueState.OPEN)
-                        .list());
+                        .list()));
             } catch (IOException | InterruptedException e) {
                 throw new AzureDevOpsRepoSCMSource.WrappedException(e);
             }
         }
 
+        /**
+         * Fetches the next page of pull requests while the current page is being processed.
+         *
+         * @param pullRequests the pull requests.
+         * @return the pull requests.
+         */
+        private Iterable<GHPullRequest> prefetch(PagedIterable<GHPullRequest> pullRequests) {
+            prefetching = new PrefetchingIterable<GHPullRequest>(pullRequests.withPageSize(PAGE_SIZE), PAGE_SIZE,
+                    PREFETCH_PAGES);
+            return prefetching;
+        }
+
         @Override
         public void close() throws IOException {
+            if (prefetching != null) {
+                // stop reading ahead if the query completed early
+                prefetching.close();
+            }
             if (fullScanRequested && iterationCompleted) {
                 // we needed a full scan and the scan was completed, so trim the cache entries
-                pullRequestMetadataCache.keySet().retainAll(pullRequestMetadataKeys);
-                pullRequestContributorCache.keySet().retainAll(pullRequestMetadataKeys);
+                pullRequestMetadataStore.retainAll(pullRequestMetadataKeys);
                 if (Jenkins.getActiveInstance().getInitLevel().compareTo(InitMilestone.JOB_LOADED) > 0) {
                     // synchronization should be cheap as only writers would be looking for this just to
                     // write null
@@ -2285,6 +2945,8 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                     }
                 }
             }
+            // persist whatever we have learned so that it is available immediately after a restart
+            pullRequestMetadataStore.save();
         }
 
         private class CacheUdatingIterable extends SinglePassIterable<GHPullRequest> {
@@ -2300,12 +2962,10 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
             @Override
             public void observe(GHPullRequest pr) {
                 int number = pr.getNumber();
-                pullRequestMetadataCache.put(number,
-                        new ObjectMetadataAction(
-                                pr.getTitle(),
-                                pr.getBody(),
-                                pr.getHtmlUrl().toExternalForm()
-                        )
+                pullRequestMetadataStore.putMetadata(number,
+                        pr.getTitle(),
+                        pr.getBody(),
+                        pr.getHtmlUrl().toExternalForm()
                 );
                 try {
                     GHUser user = pr.getUser();
@@ -2316,11 +2976,11 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                         // going to be making a request to populate the user record
                         request.checkApiRateLimit();
                     }
-                    pullRequestContributorCache.put(number, new ContributorMetadataAction(
+                    pullRequestMetadataStore.putContributor(number,
                             user.getLogin(),
                             user.getName(),
                             user.getEmail()
-                    ));
+                    );
                     // store the populated user record now that we have it
                     users.put(user.getLogin(), user);
                 } catch (IOException | InterruptedException e) {
@@ -2383,14 +3043,18 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
         @NonNull
         @Override
         protected Set<String> create() {
+            StandardCredentials credentials = Connector.lookupScanCredentials(
+                    (Item) getOwner(), apiUri, credentialsId
+            );
+            Set<String> cached = CollaboratorCache.get(apiUri, credentials, repoOwner, repository);
+            if (cached != null) {
+                return collaboratorNames = cached;
+            }
             if (collaboratorNames != null) {
                 return collaboratorNames;
             }
             listener.getLogger().format("Connecting to %s to obtain list of collaborators for %s/%s%n",
                     apiUri == null ? GITHUB_URL : apiUri, repoOwner, repository);
-            StandardCredentials credentials = Connector.lookupScanCredentials(
-                    (Item) getOwner(), apiUri, credentialsId
-            );
             // Github client and validation
             try {
                 GitHub github = Connector.connect(apiUri, credentials);
@@ -2428,8 +3092,8 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
                         } else {
                             request.checkApiRateLimit();
                             String fullName = repoOwner + "/" + repository;
-                            ghRepository = github.getRepository(fullName);
-                            repositoryUrl = ghRepository.getHtmlUrl();
+                            GHRepository ghRepository = github.getRepository(fullName);
+                            repositorySummary = RepositorySummary.of(ghRepository);
                             return new LazyContributorNames(request, listener, github, ghRepository, credentials);
                         }
                     }
@@ -2446,8 +3110,7 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
     private class DeferredPermissionsSource extends AzureDevOpsRepoPermissionsSource implements Closeable {
 
         private final TaskListener listener;
-        private GitHub github;
-        private GHRepository repo;
+        private RepositorySession session;
 
         public DeferredPermissionsSource(TaskListener listener) {
             this.listener = listener;
@@ -2455,25 +3118,27 @@ public class AzureDevOpsRepoSCMSource extends AbstractGitSCMSource {
 
         @Override
         public GHPermissionType fetch(String username) throws IOException, InterruptedException {
-            if (repo == null) {
+            StandardCredentials credentials = Connector.lookupScanCredentials(
+                    (Item) getOwner(), apiUri, credentialsId
+            );
+            GHPermissionType cached = PermissionCache.get(apiUri, credentials, repoOwner, repository, username);
+            if (cached != null && !PermissionCache.isGrant(cached)) {
+                // a build is about to be trusted, so only a denial is taken from the cache
+                return cached;
+            }
+            if (session == null) {
                 listener.getLogger().format("Connecting to %s to check permissions of obtain list of %s for %s/%s%n",
                         apiUri == null ? GITHUB_URL : apiUri, username, repoOwner, repository);
-                StandardCredentials credentials = Connector.lookupScanCredentials(
-                        (Item) getOwner(), apiUri, credentialsId
-                );
-                github = Connector.connect(apiUri, credentials);
-                String fullName = repoOwner + "/" + repository;
-                repo = github.getRepository(fullName);
+                session = RepositorySession.open(apiUri, credentials, repoOwner + "/" + repository, listener);
             }
-            return repo.getPermission(username);
+            return PermissionCache.fetch(apiUri, credentials, session.getRepository(), username, false);
         }
 
         @Override
         public void close() throws IOException {
-            if (github != null) {
-                Connector.release(github);
-                github = null;
-                repo = null;
+            if (session != null) {
+                session.close();
+                session = null;
             }
         }
     }
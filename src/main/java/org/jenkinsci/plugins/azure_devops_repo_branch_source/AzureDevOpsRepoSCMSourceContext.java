@@ -77,6 +77,20 @@ public class AzureDevOpsRepoSCMSourceContext
      * @since TODO
      */
     private final List<AbstractGitHubNotificationStrategy> notificationStrategies = new ArrayList<>();
+    /**
+     * The names that the configured head filters could accept or {@code null} if not restricted.
+     */
+    @CheckForNull
+    private HeadNameScope headNameScope;
+    /**
+     * {@code true} if the branches are filtered by whether they are the head of an origin pull request, which needs
+     * every origin pull request whatever its target branch.
+     */
+    private boolean wantOriginPRHeads;
+    /**
+     * {@code true} if scans should only log a summary and the heads that need attention.
+     */
+    private boolean compactScanLog;
 
     /**
      * Constructor.
@@ -176,6 +190,34 @@ public class AzureDevOpsRepoSCMSourceContext
         return notificationsDisabled;
     }
 
+    /**
+     * Returns the names that the configured head filters could accept, used to limit what is listed from the API.
+     *
+     * @return the names that the configured head filters could accept or {@code null} if not restricted.
+     */
+    @CheckForNull
+    final HeadNameScope headNameScope() {
+        return headNameScope;
+    }
+
+    /**
+     * Returns {@code true} if the branches are filtered by whether they are the head of an origin pull request.
+     *
+     * @return {@code true} if every origin pull request is needed whatever its target branch.
+     */
+    final boolean wantOriginPRHeads() {
+        return wantOriginPRHeads;
+    }
+
+    /**
+     * Returns {@code true} if scans should only log a summary and the heads that need attention.
+     *
+     * @return {@code true} if scans should only log a summary and the heads that need attention.
+     */
+    public final boolean compactScanLog() {
+        return compactScanLog;
+    }
+
     /**
      * Adds a requirement for branch details to any {@link AzureDevOpsRepoSCMSourceRequest} for this context.
      *
@@ -297,6 +339,44 @@ public class AzureDevOpsRepoSCMSourceContext
         return this;
     }
 
+    /**
+     * Defines whether scans should only log a summary and the heads that need attention.
+     *
+     * @param compact {@code true} to only log a summary and the heads that need attention.
+     * @return {@code this} for method chaining.
+     */
+    @NonNull
+    public final AzureDevOpsRepoSCMSourceContext withCompactScanLog(boolean compact) {
+        compactScanLog = compact;
+        return this;
+    }
+
+    /**
+     * Adds a requirement for the heads of every origin pull request to any {@link AzureDevOpsRepoSCMSourceRequest}
+     * for this context, so that pull requests are not only listed for the target branches the head filters accept.
+     *
+     * @param include {@code true} to add the requirement or {@code false} to leave the requirement as is (makes
+     *                simpler with method chaining)
+     * @return {@code this} for method chaining.
+     */
+    @NonNull
+    final AzureDevOpsRepoSCMSourceContext wantOriginPRHeads(boolean include) {
+        wantOriginPRHeads = wantOriginPRHeads || include;
+        return this;
+    }
+
+    /**
+     * Defines the names that the configured head filters could accept.
+     *
+     * @param scope the names that the configured head filters could accept or {@code null} if not restricted.
+     * @return {@code this} for method chaining.
+     */
+    @NonNull
+    final AzureDevOpsRepoSCMSourceContext withHeadNameScope(@CheckForNull HeadNameScope scope) {
+        headNameScope = scope;
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -27,6 +27,8 @@ import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Util;
 import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import jenkins.scm.api.SCMHead;
 import jenkins.scm.api.SCMHeadOrigin;
 import jenkins.scm.api.SCMSource;
@@ -38,6 +40,13 @@ import org.kohsuke.github.*;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The {@link SCMSourceRequest} for GitHub.
@@ -45,6 +54,23 @@ import java.util.*;
  * @since 2.2.0
  */
 public class AzureDevOpsRepoSCMSourceRequest extends SCMSourceRequest {
+    /**
+     * The threads that look up permissions ahead of the trust checks. Shared by all scans so that the number of
+     * concurrent lookups against the API stays bounded.
+     */
+    private static final ExecutorService permissionsExecutor;
+
+    static {
+        int threads = Math.max(1, Integer.getInteger(
+                AzureDevOpsRepoSCMSourceRequest.class.getName() + ".permissionLookupThreads", 4));
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new NamingThreadFactory(new DaemonThreadFactory(),
+                        AzureDevOpsRepoSCMSourceRequest.class.getName() + ".permissions"));
+        executor.allowCoreThreadTimeOut(true);
+        permissionsExecutor = executor;
+    }
+
     /**
      * {@code true} if branch details need to be fetched.
      */
@@ -86,11 +112,27 @@ public class AzureDevOpsRepoSCMSourceRequest extends SCMSourceRequest {
      */
     @CheckForNull
     private final Set<String> requestedTagNames;
+    /**
+     * The names that the configured head filters could accept or {@code null} if not restricted.
+     */
+    @CheckForNull
+    private final HeadNameScope headNameScope;
+    /**
+     * {@code true} if every origin pull request is needed whatever its target branch.
+     */
+    private final boolean fetchOriginPRHeads;
     /**
      * The pull request details or {@code null} if not {@link #isFetchPRs()}.
      */
     @CheckForNull
-    private Iterable<GHPullRequest> pullRequests;
+    private volatile Iterable<GHPullRequest> pullRequests;
+    /**
+     * The head branch names of the origin pull requests in {@link #pullRequests} or {@code null} if not indexed yet.
+     * Only ever replaced while holding the lock on this request, so that it stays consistent with
+     * {@link #pullRequests}.
+     */
+    @CheckForNull
+    private volatile Set<String> originPullRequestHeads;
     /**
      * The branch details or {@code null} if not {@link #isFetchBranches()}.
      */
@@ -147,6 +189,8 @@ public class AzureDevOpsRepoSCMSourceRequest extends SCMSourceRequest {
         forkPRStrategies = fetchForkPRs && !context.forkPRStrategies().isEmpty()
                 ? Collections.unmodifiableSet(EnumSet.copyOf(context.forkPRStrategies()))
                 : Collections.<ChangeRequestCheckoutStrategy>emptySet();
+        headNameScope = context.headNameScope();
+        fetchOriginPRHeads = context.wantOriginPRHeads();
         Set<SCMHead> includes = context.observer().getIncludes();
         if (includes != null) {
             Set<Integer> pullRequestNumbers = new HashSet<>(includes.size());
@@ -298,13 +342,36 @@ public class AzureDevOpsRepoSCMSourceRequest extends SCMSourceRequest {
         return requestedTagNames;
     }
 
+    /**
+     * Returns the names that the configured head filters could accept, so that only those need to be listed.
+     *
+     * @return the names that the configured head filters could accept or {@code null} if not restricted.
+     */
+    @CheckForNull
+    final HeadNameScope getHeadNameScope() {
+        return headNameScope;
+    }
+
+    /**
+     * Returns {@code true} if the branches are filtered by {@link #isOriginPullRequestHead(String)}, which needs every
+     * origin pull request whatever its target branch.
+     *
+     * @return {@code true} if the pull requests must not be limited to the target branches of the head filters.
+     */
+    final boolean isFetchOriginPRHeads() {
+        return fetchOriginPRHeads;
+    }
+
     /**
      * Provides the requests with the pull request details.
      *
      * @param pullRequests the pull request details.
      */
     public void setPullRequests(@CheckForNull Iterable<GHPullRequest> pullRequests) {
-        this.pullRequests = pullRequests;
+        synchronized (this) {
+            this.pullRequests = pullRequests;
+            this.originPullRequestHeads = null;
+        }
     }
 
     /**
@@ -319,6 +386,47 @@ public class AzureDevOpsRepoSCMSourceRequest extends SCMSourceRequest {
         return Util.fixNull(pullRequests);
     }
 
+    /**
+     * Checks if the supplied branch is the head of one of the origin pull requests in {@link #getPullRequests()}.
+     * The pull requests are indexed the first time this is called so that each subsequent call is a single lookup.
+     *
+     * @param branchName the branch name.
+     * @return {@code true} if there is an origin pull request from the supplied branch.
+     */
+    public boolean isOriginPullRequestHead(@NonNull String branchName) {
+        Set<String> heads = originPullRequestHeads;
+        if (heads == null) {
+            // index without holding the lock, as iterating may have to wait for pull requests still being fetched
+            Iterable<GHPullRequest> indexed = pullRequests;
+            heads = indexOriginPullRequestHeads(Util.fixNull(indexed));
+            synchronized (this) {
+                if (pullRequests == indexed && originPullRequestHeads == null) {
+                    originPullRequestHeads = heads;
+                }
+            }
+        }
+        return heads.contains(branchName);
+    }
+
+    /**
+     * Collects the head branch names of those pull requests where the head repository is the base repository.
+     *
+     * @param pullRequests the pull requests.
+     * @return the head branch names.
+     */
+    @NonNull
+    static Set<String> indexOriginPullRequestHeads(@NonNull Iterable<GHPullRequest> pullRequests) {
+        Set<String> heads = new HashSet<>();
+        for (GHPullRequest p : pullRequests) {
+            GHRepository headRepo = p.getHead().getRepository();
+            if (headRepo != null // head repo can be null if the PR is from a repo that has been deleted
+                    && p.getBase().getRepository().getFullName().equalsIgnoreCase(headRepo.getFullName())) {
+                heads.add(p.getHead().getRef());
+            }
+        }
+        return heads;
+    }
+
     /**
      * Provides the requests with the branch details.
      *
@@ -440,6 +548,9 @@ public class AzureDevOpsRepoSCMSourceRequest extends SCMSourceRequest {
         if (branches instanceof Closeable) {
             ((Closeable) branches).close();
         }
+        if (tags instanceof Closeable) {
+            ((Closeable) tags).close();
+        }
         if (permissionsSource instanceof Closeable) {
             ((Closeable) permissionsSource).close();
         }
@@ -476,6 +587,60 @@ public class AzureDevOpsRepoSCMSourceRequest extends SCMSourceRequest {
         return GHPermissionType.NONE;
     }
 
+    /**
+     * Resolves the permissions of the supplied users concurrently, so that the trust checks of the pull requests
+     * they submitted do not have to look them up one at a time. Any user whose permissions could not be resolved is
+     * left to {@link #getPermissions(String)}, which will report the failure.
+     *
+     * @param usernames the users.
+     * @throws InterruptedException if interrupted while waiting for the permissions.
+     */
+    public void prefetchPermissions(@NonNull Collection<String> usernames) throws InterruptedException {
+        final AzureDevOpsRepoPermissionsSource permissionsSource = this.permissionsSource;
+        if (permissionsSource == null) {
+            return;
+        }
+        Set<String> wanted = new LinkedHashSet<>();
+        synchronized (permissions) {
+            for (String username : usernames) {
+                if (username != null && !permissions.containsKey(username)) {
+                    wanted.add(username);
+                }
+            }
+        }
+        if (wanted.size() < 2) {
+            // nothing to be gained, leave it to the trust check
+            return;
+        }
+        Map<String, Future<GHPermissionType>> lookups = new LinkedHashMap<>();
+        try {
+            for (final String username : wanted) {
+                lookups.put(username, permissionsExecutor.submit(new Callable<GHPermissionType>() {
+                    @Override
+                    public GHPermissionType call() throws Exception {
+                        return permissionsSource.fetch(username);
+                    }
+                }));
+            }
+            for (Map.Entry<String, Future<GHPermissionType>> lookup : lookups.entrySet()) {
+                GHPermissionType result;
+                try {
+                    result = lookup.getValue().get();
+                } catch (ExecutionException e) {
+                    continue;
+                }
+                synchronized (permissions) {
+                    permissions.put(lookup.getKey(), result);
+                }
+            }
+        } finally {
+            for (Future<GHPermissionType> lookup : lookups.values()) {
+                // only has an effect if we were interrupted
+                lookup.cancel(true);
+            }
+        }
+    }
+
     /**
      * Returns the permission source.
      *
@@ -32,8 +32,6 @@ import jenkins.scm.impl.trait.Discovery;
 import org.jenkinsci.Symbol;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
-import org.kohsuke.github.GHPullRequest;
-import org.kohsuke.github.GHRepository;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 /**
@@ -108,10 +106,12 @@ public class BranchDiscoveryTrait extends SCMSourceTrait {
         switch (strategyId) {
             case 1:
                 ctx.wantOriginPRs(true);
+                ctx.wantOriginPRHeads(true);
                 ctx.withFilter(new ExcludeOriginPRBranchesSCMHeadFilter());
                 break;
             case 2:
                 ctx.wantOriginPRs(true);
+                ctx.wantOriginPRHeads(true);
                 ctx.withFilter(new OnlyOriginPRBranchesSCMHeadFilter());
                 break;
             case 3:
@@ -224,17 +224,8 @@ public class BranchDiscoveryTrait extends SCMSourceTrait {
          */
         @Override
         public boolean isExcluded(@NonNull SCMSourceRequest request, @NonNull SCMHead head) {
-            if (head instanceof BranchSCMHead && request instanceof AzureDevOpsRepoSCMSourceRequest) {
-                for (GHPullRequest p : ((AzureDevOpsRepoSCMSourceRequest) request).getPullRequests()) {
-                    GHRepository headRepo = p.getHead().getRepository();
-                    if (headRepo != null // head repo can be null if the PR is from a repo that has been deleted
-                            && p.getBase().getRepository().getFullName().equalsIgnoreCase(headRepo.getFullName())
-                            && p.getHead().getRef().equals(head.getName())) {
-                        return true;
-                    }
-                }
-            }
-            return false;
+            return head instanceof BranchSCMHead && request instanceof AzureDevOpsRepoSCMSourceRequest
+                    && ((AzureDevOpsRepoSCMSourceRequest) request).isOriginPullRequestHead(head.getName());
         }
     }
 
@@ -247,18 +238,8 @@ public class BranchDiscoveryTrait extends SCMSourceTrait {
          */
         @Override
         public boolean isExcluded(@NonNull SCMSourceRequest request, @NonNull SCMHead head) {
-            if (head instanceof BranchSCMHead && request instanceof AzureDevOpsRepoSCMSourceRequest) {
-                for (GHPullRequest p : ((AzureDevOpsRepoSCMSourceRequest) request).getPullRequests()) {
-                    GHRepository headRepo = p.getHead().getRepository();
-                    if (headRepo != null // head repo can be null if the PR is from a repo that has been deleted
-                            && p.getBase().getRepository().getFullName().equalsIgnoreCase(headRepo.getFullName())
-                            && p.getHead().getRef().equals(head.getName())) {
-                        return false;
-                    }
-                }
-                return true;
-            }
-            return false;
+            return head instanceof BranchSCMHead && request instanceof AzureDevOpsRepoSCMSourceRequest
+                    && !((AzureDevOpsRepoSCMSourceRequest) request).isOriginPullRequestHead(head.getName());
         }
     }
 }
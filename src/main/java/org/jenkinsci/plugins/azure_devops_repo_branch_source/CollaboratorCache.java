@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.LogTaskListener;
+import jenkins.util.Timer;
+import org.kohsuke.github.GitHub;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The collaborators of each repository, shared by every {@link AzureDevOpsRepoSCMSource} that points at the same
+ * repository of the same endpoint with the same credentials. Entries are refreshed in the background once they are
+ * half way to expiry so that trust checks rarely have to wait for the collaborators to be paged through, and are
+ * discarded when a webhook tells us that membership of the repository or its owner has changed. No credentials are
+ * kept, a refresh uses the credentials of the caller that found the entry half way to expiry.
+ */
+final class CollaboratorCache {
+    /**
+     * Our logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CollaboratorCache.class.getName());
+    /**
+     * How long an entry can be used for.
+     */
+    private static final long ttlMillis = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(CollaboratorCache.class.getName() + ".ttlMinutes", 15)));
+    /**
+     * The entries keyed by {@link #key(String, StandardCredentials, String, String)}.
+     */
+    private static final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private CollaboratorCache() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * Gets the cached collaborator names of a repository.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the current credentials, which will be used to refresh the names if they are getting old.
+     * @param owner       the repository owner.
+     * @param repository  the repository name.
+     * @return the collaborator names or {@code null} if not cached.
+     */
+    @CheckForNull
+    static Set<String> get(@CheckForNull String apiUri, @CheckForNull final StandardCredentials credentials,
+                           @NonNull String owner, @NonNull String repository) {
+        final String key = key(apiUri, credentials, owner, repository);
+        final Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long age = System.currentTimeMillis() - entry.fetched;
+        if (age >= ttlMillis) {
+            entries.remove(key, entry);
+            return null;
+        }
+        if (age >= ttlMillis / 2 && entry.refreshing.compareAndSet(false, true)) {
+            Timer.get().submit(new Runnable() {
+                @Override
+                public void run() {
+                    refresh(key, entry, credentials);
+                }
+            });
+        }
+        return entry.names;
+    }
+
+    /**
+     * Records the collaborator names of a repository.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials used to fetch the names.
+     * @param owner       the repository owner.
+     * @param repository  the repository name.
+     * @param names       the collaborator names.
+     * @return the shared copy of the collaborator names.
+     */
+    @NonNull
+    static Set<String> put(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                           @NonNull String owner, @NonNull String repository, @NonNull Set<String> names) {
+        Set<String> shared = AzureDevOpsRepoSCMSource.internCollaboratorNames(names);
+        entries.put(key(apiUri, credentials, owner, repository), new Entry(apiUri, owner, repository, shared));
+        return shared;
+    }
+
+    /**
+     * Discards the cached collaborators of the matching repositories.
+     *
+     * @param host       the host name of the endpoint or {@code null} to match any endpoint.
+     * @param owner      the repository owner.
+     * @param repository the repository name or {@code null} to match all repositories of the owner.
+     */
+    static void invalidate(@CheckForNull String host, @NonNull String owner, @CheckForNull String repository) {
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.owner.equalsIgnoreCase(owner)
+                    && (repository == null || entry.repository.equalsIgnoreCase(repository))
+                    && (host == null || host.equalsIgnoreCase(RepositoryUriResolver.hostnameFromApiUri(entry.apiUri)))) {
+                entries.remove(e.getKey(), entry);
+            }
+        }
+    }
+
+    @NonNull
+    private static String key(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                              @NonNull String owner, @NonNull String repository) {
+        return RepositoryUriResolver.hostnameFromApiUri(apiUri).toLowerCase(Locale.ENGLISH)
+                + "/" + Connector.digestOf(credentials)
+                + "/" + owner.toLowerCase(Locale.ENGLISH)
+                + "/" + repository.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static void refresh(String key, Entry entry, StandardCredentials credentials) {
+        try {
+            GitHub github = Connector.connect(entry.apiUri, credentials);
+            try {
+                Connector.checkApiRateLimit(new LogTaskListener(LOGGER, Level.FINE), github);
+                Set<String> names = github.getRepository(entry.owner + "/" + entry.repository).getCollaboratorNames();
+                if (entries.get(key) == entry) {
+                    // only replace if nobody has invalidated or replaced the entry in the mean time
+                    entries.replace(key, entry, new Entry(entry.apiUri, entry.owner, entry.repository,
+                            AzureDevOpsRepoSCMSource.internCollaboratorNames(names)));
+                }
+            } finally {
+                Connector.release(github);
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            LOGGER.log(Level.FINE, "Could not refresh the collaborators of " + key + ", will fetch on expiry", e);
+        }
+    }
+
+    private static final class Entry {
+        private final String apiUri;
+        private final String owner;
+        private final String repository;
+        private final Set<String> names;
+        private final long fetched = System.currentTimeMillis();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(String apiUri, String owner, String repository, Set<String> names) {
+            this.apiUri = apiUri;
+            this.owner = owner;
+            this.repository = repository;
+            this.names = names;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.cloudbees.jenkins.GitHubRepositoryName;
+import hudson.Extension;
+import hudson.model.Item;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.SCMSourceOwner;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.github.extension.GHEventsSubscriber;
+import org.jenkinsci.plugins.github.extension.GHSubscriberEvent;
+import org.kohsuke.github.GHEvent;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.collect.Sets.immutableEnumSet;
+import static org.kohsuke.github.GHEvent.MEMBER;
+import static org.kohsuke.github.GHEvent.MEMBERSHIP;
+import static org.kohsuke.github.GHEvent.ORGANIZATION;
+import static org.kohsuke.github.GHEvent.REPOSITORY;
+import static org.kohsuke.github.GHEvent.TEAM;
+import static org.kohsuke.github.GHEvent.TEAM_ADD;
+
+/**
+ * This subscriber discards the {@link CollaboratorCache} and {@link PermissionCache} entries of repositories whose
+ * collaborators may have changed.
+ */
+@Extension
+public class CollaboratorCacheEventSubscriber extends GHEventsSubscriber {
+
+    /**
+     * Our logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(CollaboratorCacheEventSubscriber.class.getName());
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean isApplicable(@Nullable Item project) {
+        if (project instanceof SCMSourceOwner) {
+            for (SCMSource source : ((SCMSourceOwner) project).getSCMSources()) {
+                if (source instanceof AzureDevOpsRepoSCMSource) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return set with the events that can change who is a collaborator
+     */
+    @Override
+    protected Set<GHEvent> events() {
+        return immutableEnumSet(MEMBER, MEMBERSHIP, ORGANIZATION, REPOSITORY, TEAM, TEAM_ADD);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void onEvent(GHSubscriberEvent event) {
+        try {
+            JSONObject payload = JSONObject.fromObject(event.getPayload());
+            JSONObject repository = payload.optJSONObject("repository");
+            if (repository != null && !repository.isNullObject()) {
+                String repoUrl = repository.optString("html_url", null);
+                GitHubRepositoryName name = repoUrl == null ? null : GitHubRepositoryName.create(repoUrl);
+                if (name == null) {
+                    LOGGER.log(Level.WARNING, "Malformed repository URL {0}", repoUrl);
+                    return;
+                }
+                LOGGER.log(Level.FINE, "Received {0} for {1} from {2}, discarding cached collaborators and permissions",
+                        new Object[]{event.getGHEvent(), repoUrl, event.getOrigin()});
+                CollaboratorCache.invalidate(name.getHost(), name.getUserName(), name.getRepositoryName());
+                PermissionCache.invalidate(name.getHost(), name.getUserName(), name.getRepositoryName());
+                return;
+            }
+            JSONObject organization = payload.optJSONObject("organization");
+            if (organization != null && !organization.isNullObject()) {
+                String login = organization.optString("login", null);
+                if (login != null) {
+                    LOGGER.log(Level.FINE, "Received {0} for {1} from {2}, discarding cached collaborators and permissions",
+                            new Object[]{event.getGHEvent(), login, event.getOrigin()});
+                    // we cannot tell which endpoint the organization lives on
+                    CollaboratorCache.invalidate(null, login, null);
+                    PermissionCache.invalidate(null, login, null);
+                }
+            }
+        } catch (JSONException e) {
+            LOGGER.log(Level.WARNING, "Could not parse " + event.getGHEvent() + " event from " + event.getOrigin(), e);
+        }
+    }
+}
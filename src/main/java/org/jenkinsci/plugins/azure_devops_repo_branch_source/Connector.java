@@ -297,6 +297,26 @@ public class Connector {
         );
     }
 
+    /**
+     * Gets a salted digest of the secret of the credentials, which identifies the credentials for as long as the
+     * secret is unchanged, wherever they are stored. Credentials IDs are only unique within a store.
+     *
+     * @param credentials the credentials or {@code null} for anonymous access.
+     * @return the digest.
+     */
+    @NonNull
+    static String digestOf(@CheckForNull StandardCredentials credentials) {
+        if (credentials == null) {
+            return "anonymous";
+        }
+        if (credentials instanceof StandardUsernamePasswordCredentials) {
+            StandardUsernamePasswordCredentials c = (StandardUsernamePasswordCredentials) credentials;
+            return Util.getDigestOf(c.getPassword().getPlainText() + SALT);
+        }
+        // unsupported, cannot connect with these anyway
+        return Util.getDigestOf(credentials.getClass().getName() + "::" + credentials.getId() + SALT);
+    }
+
     public static void checkApiUrlValidity(@Nonnull GitHub gitHub, @CheckForNull StandardCredentials credentials) throws IOException {
         String hash;
         if (credentials == null) {
@@ -0,0 +1,233 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.scm.api.trait.SCMSourceTrait;
+import jenkins.scm.impl.trait.RegexSCMHeadFilterTrait;
+import jenkins.scm.impl.trait.WildcardSCMHeadFilterTrait;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The names that heads can possibly have given the configured head name filters, expressed in a form that can be
+ * passed to the Azure DevOps Repo API so that we only list the refs that the filters could accept. The filters
+ * themselves are still applied to everything listed, this only saves listing refs that would be discarded anyway.
+ * <p>
+ * A scope is made of literal ref path prefixes, always ending in {@code /} as git does not allow a ref to also be
+ * a directory of refs, and exact names.
+ */
+final class HeadNameScope {
+    /**
+     * The characters that end the literal prefix of a regular expression.
+     */
+    static final String REGEX_SPECIAL = "\\.[]{}()*+?^$|";
+
+    @NonNull
+    private final Set<String> prefixes;
+    @NonNull
+    private final Set<String> names;
+
+    private HeadNameScope(@NonNull Set<String> prefixes, @NonNull Set<String> names) {
+        this.prefixes = Collections.unmodifiableSet(prefixes);
+        this.names = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Derives the scope from the configured traits.
+     *
+     * @param traits the traits.
+     * @return the scope or {@code null} if any head name may be accepted.
+     */
+    @CheckForNull
+    static HeadNameScope of(@NonNull Collection<? extends SCMSourceTrait> traits) {
+        for (SCMSourceTrait trait : traits) {
+            HeadNameScope scope = null;
+            if (trait instanceof WildcardSCMHeadFilterTrait) {
+                scope = ofWildcards(((WildcardSCMHeadFilterTrait) trait).getIncludes());
+            } else if (trait instanceof RegexSCMHeadFilterTrait) {
+                scope = ofRegex(((RegexSCMHeadFilterTrait) trait).getRegex());
+            }
+            if (scope != null) {
+                // every filter has to accept a head so any one of them bounds the names
+                return scope;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Derives the scope from space separated wildcard includes.
+     *
+     * @param includes the includes.
+     * @return the scope or {@code null} if any head name may be accepted.
+     */
+    @CheckForNull
+    static HeadNameScope ofWildcards(@CheckForNull String includes) {
+        Set<String> prefixes = new TreeSet<>();
+        Set<String> names = new TreeSet<>();
+        for (String include : StringUtils.split(StringUtils.defaultString(includes), ' ')) {
+            int index = include.indexOf('*');
+            if (index == -1) {
+                names.add(include);
+                continue;
+            }
+            String prefix = segmentPrefix(include.substring(0, index));
+            if (prefix.isEmpty()) {
+                return null;
+            }
+            prefixes.add(prefix);
+        }
+        return prefixes.isEmpty() && names.isEmpty() ? null : new HeadNameScope(minimize(prefixes), names);
+    }
+
+    /**
+     * Derives the scope from a regular expression that must match the whole head name.
+     *
+     * @param regex the regular expression.
+     * @return the scope or {@code null} if any head name may be accepted.
+     */
+    @CheckForNull
+    static HeadNameScope ofRegex(@CheckForNull String regex) {
+        if (regex == null || regex.indexOf('|') != -1) {
+            // alternation could apply to any part, do not try to be clever
+            return null;
+        }
+        int start = regex.startsWith("^") ? 1 : 0;
+        int end = start;
+        while (end < regex.length() && REGEX_SPECIAL.indexOf(regex.charAt(end)) == -1) {
+            end++;
+        }
+        if (end == regex.length() || regex.charAt(end) == '$' && end == regex.length() - 1) {
+            // no special characters at all, so an exact name
+            String name = regex.substring(start, end);
+            return name.isEmpty() ? null : new HeadNameScope(Collections.<String>emptySet(), Collections.singleton(name));
+        }
+        if ("?*{".indexOf(regex.charAt(end)) != -1 && end > start) {
+            // the last literal character is quantified so is not part of the prefix
+            end--;
+        }
+        String prefix = segmentPrefix(regex.substring(start, end));
+        return prefix.isEmpty()
+                ? null
+                : new HeadNameScope(Collections.singleton(prefix), Collections.<String>emptySet());
+    }
+
+    /**
+     * Truncates a literal prefix to the last complete path segment.
+     *
+     * @param literal the literal prefix.
+     * @return the prefix up to and including the last {@code /} or the empty string.
+     */
+    @NonNull
+    private static String segmentPrefix(@NonNull String literal) {
+        return literal.substring(0, literal.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Removes any prefix that is covered by a shorter prefix.
+     *
+     * @param prefixes the sorted prefixes.
+     * @return the prefixes.
+     */
+    @NonNull
+    private static Set<String> minimize(@NonNull Set<String> prefixes) {
+        String previous = null;
+        for (Iterator<String> iterator = prefixes.iterator(); iterator.hasNext(); ) {
+            String prefix = iterator.next();
+            if (previous != null && prefix.startsWith(previous)) {
+                iterator.remove();
+            } else {
+                previous = prefix;
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * Returns the ref path prefixes, each ending in {@code /}.
+     *
+     * @return the ref path prefixes.
+     */
+    @NonNull
+    Set<String> getPrefixes() {
+        return prefixes;
+    }
+
+    /**
+     * Returns the exact names.
+     *
+     * @return the exact names.
+     */
+    @NonNull
+    Set<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Checks if the supplied name is within this scope.
+     *
+     * @param name the name.
+     * @return {@code true} if the name is within this scope.
+     */
+    boolean contains(@NonNull String name) {
+        if (names.contains(name)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the single exact name if this scope is only a single exact name.
+     *
+     * @return the single exact name or {@code null}.
+     */
+    @CheckForNull
+    String getSingleName() {
+        return prefixes.isEmpty() && names.size() == 1 ? names.iterator().next() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        Set<String> result = new TreeSet<>(names);
+        for (String prefix : prefixes) {
+            result.add(prefix + "*");
+        }
+        return StringUtils.join(result, ' ');
+    }
+}
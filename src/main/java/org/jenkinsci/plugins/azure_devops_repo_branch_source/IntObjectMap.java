@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A compact map from {@code int} keys to values, backed by a sorted {@code int[]} of keys and a parallel array of
+ * values. Pull request numbers are dense and there are typically a few hundred open at most, so this avoids the
+ * boxed keys and per-entry nodes of a {@link java.util.HashMap} for a binary search on lookup.
+ * <p>
+ * Not thread safe, callers must provide their own synchronization.
+ *
+ * @param <V> the type of values.
+ */
+final class IntObjectMap<V> {
+    private static final int[] NO_KEYS = new int[0];
+    private static final Object[] NO_VALUES = new Object[0];
+
+    private int[] keys = NO_KEYS;
+    private Object[] values = NO_VALUES;
+    private int size;
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns {@code true} if there are no entries.
+     *
+     * @return {@code true} if there are no entries.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the value of the specified key.
+     *
+     * @param key the key.
+     * @return the value or {@code null} if there is no entry.
+     */
+    @CheckForNull
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    /**
+     * Sets the value of the specified key.
+     *
+     * @param key   the key.
+     * @param value the value.
+     * @return the previous value or {@code null} if there was no entry.
+     */
+    @CheckForNull
+    @SuppressWarnings("unchecked")
+    V put(int key, @NonNull V value) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+        index = -index - 1;
+        if (size == keys.length) {
+            int capacity = Math.max(8, size + (size >> 1));
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        keys[index] = key;
+        values[index] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes every entry whose key is not in the supplied collection.
+     *
+     * @param retain the keys to keep.
+     * @return {@code true} if any entries were removed.
+     */
+    boolean retainAll(@NonNull Collection<Integer> retain) {
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (retain.contains(keys[i])) {
+                keys[j] = keys[i];
+                values[j] = values[i];
+                j++;
+            }
+        }
+        if (j == size) {
+            return false;
+        }
+        Arrays.fill(values, j, size, null);
+        size = j;
+        if (size < keys.length / 4) {
+            // give back the memory once most of the pull requests have been closed
+            keys = size == 0 ? NO_KEYS : Arrays.copyOf(keys, size);
+            values = size == 0 ? NO_VALUES : Arrays.copyOf(values, size);
+        }
+        return true;
+    }
+
+    /**
+     * Returns a live view of the values in key order.
+     *
+     * @return the values.
+     */
+    @NonNull
+    List<V> values() {
+        return new AbstractList<V>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public V get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(Integer.toString(index));
+                }
+                return (V) values[index];
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.kohsuke.github.GHMyself;
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHPerson;
+import org.kohsuke.github.GHUser;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What each {@link AzureDevOpsRepoSCMNavigator} owner resolved to: the authenticated user, an organization or some
+ * other user. Working that out takes up to three requests, and the answer practically never changes, so it is
+ * remembered per endpoint, credentials and owner and only checked again once it expires (or stops working).
+ */
+final class OwnerCache {
+    /**
+     * How long an entry can be used for.
+     */
+    private static final long ttlMillis = TimeUnit.HOURS.toMillis(Math.max(0,
+            Integer.getInteger(OwnerCache.class.getName() + ".ttlHours", 24)));
+    /**
+     * The entries keyed by {@link #key(String, StandardCredentials, String)}.
+     */
+    private static final ConcurrentMap<String, Owner> entries = new ConcurrentHashMap<>();
+
+    private OwnerCache() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * Gets the cached resolution of an owner.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials or {@code null} for anonymous access.
+     * @param owner       the owner.
+     * @return the resolution or {@code null} if not cached.
+     */
+    @CheckForNull
+    static Owner get(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                     @NonNull String owner) {
+        String key = key(apiUri, credentials, owner);
+        Owner entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.resolved >= ttlMillis) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Records the resolution of an owner.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials or {@code null} for anonymous access.
+     * @param owner       the owner.
+     * @param person      what the owner resolved to.
+     * @return the resolution.
+     * @throws IOException if the details of the owner could not be retrieved.
+     */
+    @NonNull
+    static Owner put(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                     @NonNull String owner, @NonNull GHPerson person) throws IOException {
+        Kind kind = person instanceof GHMyself
+                ? Kind.MYSELF
+                : person instanceof GHOrganization ? Kind.ORGANIZATION : Kind.USER;
+        URL htmlUrl = person instanceof GHOrganization
+                ? ((GHOrganization) person).getHtmlUrl()
+                : ((GHUser) person).getHtmlUrl();
+        Owner entry = new Owner(kind, person.getLogin(), person.getName(), person.getAvatarUrl(),
+                htmlUrl == null ? null : htmlUrl.toExternalForm());
+        entries.put(key(apiUri, credentials, owner), entry);
+        return entry;
+    }
+
+    /**
+     * Discards the cached resolution of an owner.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials or {@code null} for anonymous access.
+     * @param owner       the owner.
+     */
+    static void invalidate(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                           @NonNull String owner) {
+        entries.remove(key(apiUri, credentials, owner));
+    }
+
+    @NonNull
+    private static String key(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                              @NonNull String owner) {
+        return RepositoryUriResolver.hostnameFromApiUri(apiUri).toLowerCase(Locale.ENGLISH)
+                + "/" + Connector.digestOf(credentials)
+                + "/" + owner.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * What kind of account an owner is.
+     */
+    enum Kind {
+        /**
+         * The account of the credentials.
+         */
+        MYSELF,
+        /**
+         * An organization.
+         */
+        ORGANIZATION,
+        /**
+         * Any other user.
+         */
+        USER
+    }
+
+    /**
+     * The resolution of an owner.
+     */
+    static final class Owner {
+        @NonNull
+        private final Kind kind;
+        @NonNull
+        private final String login;
+        @CheckForNull
+        private final String name;
+        @CheckForNull
+        private final String avatarUrl;
+        @CheckForNull
+        private final String htmlUrl;
+        private final long resolved = System.currentTimeMillis();
+
+        private Owner(@NonNull Kind kind, @NonNull String login, @CheckForNull String name,
+                      @CheckForNull String avatarUrl, @CheckForNull String htmlUrl) {
+            this.kind = kind;
+            this.login = login;
+            this.name = name;
+            this.avatarUrl = avatarUrl;
+            this.htmlUrl = htmlUrl;
+        }
+
+        @NonNull
+        Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the login of the owner as spelled by the API.
+         *
+         * @return the canonical login.
+         */
+        @NonNull
+        String getLogin() {
+            return login;
+        }
+
+        /**
+         * Returns the display name of the owner.
+         *
+         * @return the display name or {@code null} if none has been set.
+         */
+        @CheckForNull
+        String getName() {
+            return name;
+        }
+
+        @CheckForNull
+        String getAvatarUrl() {
+            return avatarUrl;
+        }
+
+        /**
+         * Returns the web page of the owner.
+         *
+         * @return the web page or {@code null} if unknown.
+         */
+        @CheckForNull
+        String getHtmlUrl() {
+            return htmlUrl;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.kohsuke.github.GHPermissionType;
+import org.kohsuke.github.GHRepository;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The permissions that users have on each repository, shared by scans and by the trust checks made when a pull
+ * request is built. Users without write access are the common case for fork pull requests, so those answers are
+ * cached too, though for less time so that a newly added collaborator is not kept waiting for long. A trust check
+ * made when a pull request is built only relies on cached denials, a cached grant could outlive a revoked access.
+ * The entries are kept apart by credentials, as weaker credentials may not be able to see a permission at all.
+ */
+final class PermissionCache {
+    /**
+     * How long a permission of {@link GHPermissionType#WRITE} or better can be used for.
+     */
+    private static final long ttlMillis = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(PermissionCache.class.getName() + ".ttlMinutes", 15)));
+    /**
+     * How long any lesser permission can be used for.
+     */
+    private static final long negativeTtlMillis = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(PermissionCache.class.getName() + ".negativeTtlMinutes", 5)));
+    /**
+     * The entries keyed by {@link #key(String, StandardCredentials, String, String, String)}.
+     */
+    private static final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private PermissionCache() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * Gets the cached permission of a user on a repository.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials the permission was retrieved with or {@code null} for anonymous.
+     * @param owner       the repository owner.
+     * @param repository  the repository name.
+     * @param username    the user.
+     * @return the permission or {@code null} if not cached.
+     */
+    @CheckForNull
+    static GHPermissionType get(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                                @NonNull String owner, @NonNull String repository, @NonNull String username) {
+        String key = key(apiUri, credentials, owner, repository, username);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expires) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.permission;
+    }
+
+    /**
+     * Gets the permission of a user on a repository, asking the repository if it is not cached.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials {@code repo} was retrieved with or {@code null} for anonymous.
+     * @param repo        the repository.
+     * @param username    the user.
+     * @return the permission.
+     * @throws IOException if the permission could not be retrieved.
+     */
+    @NonNull
+    static GHPermissionType fetch(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                                  @NonNull GHRepository repo, @NonNull String username) throws IOException {
+        return fetch(apiUri, credentials, repo, username, true);
+    }
+
+    /**
+     * Gets the permission of a user on a repository, asking the repository if it is not cached or if it is a cached
+     * grant that is not to be relied on.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials {@code repo} was retrieved with or {@code null} for anonymous.
+     * @param repo        the repository.
+     * @param username    the user.
+     * @param cachedGrant {@code false} to only rely on a cached permission if it is less than
+     *                    {@link GHPermissionType#WRITE}.
+     * @return the permission.
+     * @throws IOException if the permission could not be retrieved.
+     */
+    @NonNull
+    static GHPermissionType fetch(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                                  @NonNull GHRepository repo, @NonNull String username, boolean cachedGrant)
+            throws IOException {
+        String owner = repo.getOwnerName();
+        String repository = repo.getName();
+        GHPermissionType permission = get(apiUri, credentials, owner, repository, username);
+        if (permission != null && (cachedGrant || !isGrant(permission))) {
+            return permission;
+        }
+        try {
+            permission = repo.getPermission(username);
+        } catch (FileNotFoundException e) {
+            // the user does not exist or we cannot see their permissions, either way they are not to be trusted
+            permission = GHPermissionType.NONE;
+        }
+        put(apiUri, credentials, owner, repository, username, permission);
+        return permission;
+    }
+
+    /**
+     * Records the permission of a user on a repository.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials the permission was retrieved with or {@code null} for anonymous.
+     * @param owner       the repository owner.
+     * @param repository  the repository name.
+     * @param username    the user.
+     * @param permission  the permission.
+     */
+    static void put(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                    @NonNull String owner, @NonNull String repository, @NonNull String username,
+                    @NonNull GHPermissionType permission) {
+        long ttl = isGrant(permission) ? ttlMillis : negativeTtlMillis;
+        entries.put(key(apiUri, credentials, owner, repository, username),
+                new Entry(apiUri, owner, repository, permission, System.currentTimeMillis() + ttl));
+    }
+
+    /**
+     * Checks if a permission allows pushing to the repository.
+     *
+     * @param permission the permission.
+     * @return {@code true} if the permission is {@link GHPermissionType#WRITE} or better.
+     */
+    static boolean isGrant(@NonNull GHPermissionType permission) {
+        return permission == GHPermissionType.ADMIN || permission == GHPermissionType.WRITE;
+    }
+
+    /**
+     * Discards the cached permissions on the matching repositories.
+     *
+     * @param host       the host name of the endpoint or {@code null} to match any endpoint.
+     * @param owner      the repository owner.
+     * @param repository the repository name or {@code null} to match all repositories of the owner.
+     */
+    static void invalidate(@CheckForNull String host, @NonNull String owner, @CheckForNull String repository) {
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.owner.equalsIgnoreCase(owner)
+                    && (repository == null || entry.repository.equalsIgnoreCase(repository))
+                    && (host == null || host.equalsIgnoreCase(RepositoryUriResolver.hostnameFromApiUri(entry.apiUri)))) {
+                entries.remove(e.getKey(), entry);
+            }
+        }
+    }
+
+    @NonNull
+    private static String key(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                              @NonNull String owner, @NonNull String repository, @NonNull String username) {
+        return RepositoryUriResolver.hostnameFromApiUri(apiUri).toLowerCase(Locale.ENGLISH)
+                + "/" + Connector.digestOf(credentials)
+                + "/" + owner.toLowerCase(Locale.ENGLISH)
+                + "/" + repository.toLowerCase(Locale.ENGLISH)
+                + "/" + username.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static final class Entry {
+        private final String apiUri;
+        private final String owner;
+        private final String repository;
+        private final GHPermissionType permission;
+        private final long expires;
+
+        private Entry(String apiUri, String owner, String repository, GHPermissionType permission, long expires) {
+            this.apiUri = apiUri;
+            this.owner = owner;
+            this.repository = repository;
+            this.permission = permission;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.io.Closeable;
+import java.io.InterruptedIOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An {@link Iterable} that reads its delegate on a background thread one page at a time, so that fetching the next
+ * page from the remote API overlaps with the processing of the current page. At most a bounded number of pages are
+ * buffered ahead of the consumer and the background read stops once the iterable is {@link #close()}d or the
+ * iterator is abandoned. When no thread is free to read ahead the consumer reads the delegate itself.
+ *
+ * @param <V> the type of element.
+ */
+final class PrefetchingIterable<V> implements Iterable<V>, Closeable {
+    /**
+     * The maximum number of threads that read ahead. Each scan only has a few iterations in flight at any time.
+     */
+    private static final int threads =
+            Math.max(1, Integer.getInteger(PrefetchingIterable.class.getName() + ".threads", 10));
+    /**
+     * The threads that read ahead.
+     */
+    private static final ExecutorService executor;
+
+    static {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new NamingThreadFactory(new DaemonThreadFactory(), PrefetchingIterable.class.getName()));
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+    /**
+     * Marks the end of the delegate.
+     */
+    private static final Object END = new Object();
+
+    @NonNull
+    private final Iterable<V> delegate;
+    private final int pageSize;
+    private final int maxBufferedPages;
+    private volatile boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate         the {@link Iterable} to read ahead from.
+     * @param pageSize         how many elements make up a page, this should match the page size of the delegate.
+     * @param maxBufferedPages the maximum number of pages to read ahead.
+     */
+    PrefetchingIterable(@NonNull Iterable<V> delegate, int pageSize, int maxBufferedPages) {
+        this.delegate = delegate;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxBufferedPages = Math.max(1, maxBufferedPages);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<V> iterator() {
+        if (closed) {
+            return Collections.<V>emptyList().iterator();
+        }
+        PrefetchingIterator iterator = new PrefetchingIterator();
+        executor.submit(new Reader(iterator));
+        return iterator;
+    }
+
+    /**
+     * Stops any reading ahead, for example because the query has completed before reaching the end.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * The failure of the background read.
+     */
+    private static final class Failure {
+        private final Throwable cause;
+
+        private Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * The consumer side.
+     */
+    private final class PrefetchingIterator implements Iterator<V> {
+        private final BlockingQueue<Object> pages = new ArrayBlockingQueue<>(maxBufferedPages);
+        /**
+         * Set by whichever of the reader and the consumer claims the delegate.
+         */
+        private final AtomicBoolean started = new AtomicBoolean();
+        /**
+         * Set by the reader once it will not queue anything more.
+         */
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private Iterator<V> current = Collections.<V>emptyList().iterator();
+        private boolean done;
+        /**
+         * Set once the consumer reads the delegate itself.
+         */
+        private boolean direct;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean hasNext() {
+            if (direct && closed) {
+                return false;
+            }
+            while (!current.hasNext()) {
+                if (done || closed) {
+                    return false;
+                }
+                Object page;
+                try {
+                    page = pages.poll(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AzureDevOpsRepoSCMSource.WrappedException(e);
+                }
+                if (page == null) {
+                    if (started.compareAndSet(false, true)) {
+                        // all the threads are busy, waiting for one could stall behind our own other iterations
+                        current = delegate.iterator();
+                        direct = true;
+                        done = true;
+                    } else if (finished.get() && pages.isEmpty()) {
+                        done = true;
+                        throw new AzureDevOpsRepoSCMSource.WrappedException(
+                                new InterruptedIOException("Reading ahead stopped before the end"));
+                    }
+                } else if (page == END) {
+                    done = true;
+                } else if (page instanceof Failure) {
+                    done = true;
+                    Throwable cause = ((Failure) page).cause;
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new AzureDevOpsRepoSCMSource.WrappedException(cause);
+                } else {
+                    current = ((List<V>) page).iterator();
+                }
+            }
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * The producer side. Only holds a weak reference to the consumer so that an abandoned iteration does not keep
+     * a thread blocked forever.
+     */
+    private final class Reader implements Runnable {
+        private final WeakReference<PrefetchingIterator> consumer;
+        private final BlockingQueue<Object> pages;
+        private final AtomicBoolean started;
+        private final AtomicBoolean finished;
+
+        private Reader(PrefetchingIterator consumer) {
+            this.consumer = new WeakReference<>(consumer);
+            this.pages = consumer.pages;
+            this.started = consumer.started;
+            this.finished = consumer.finished;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                Iterator<V> iterator = delegate.iterator();
+                while (iterator.hasNext()) {
+                    List<V> page = new ArrayList<>(pageSize);
+                    while (page.size() < pageSize && iterator.hasNext()) {
+                        page.add(iterator.next());
+                    }
+                    if (!offer(page)) {
+                        return;
+                    }
+                }
+                offer(END);
+            } catch (Throwable t) {
+                offer(new Failure(t));
+            } finally {
+                finished.set(true);
+            }
+        }
+
+        private boolean offer(Object page) {
+            try {
+                while (!pages.offer(page, 1, TimeUnit.SECONDS)) {
+                    if (closed || consumer.get() == null) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+    }
+}
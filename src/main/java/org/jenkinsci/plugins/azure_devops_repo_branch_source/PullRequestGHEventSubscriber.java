@@ -108,6 +108,7 @@ public class PullRequestGHEventSubscriber extends GHEventsSubscriber {
                     LOGGER.log(Level.WARNING, "Malformed repository URL {0}", repoUrl);
                     return;
                 }
+                WebhookHealth.delivered(changedRepository);
 
                 if ("opened".equals(action)) {
                     fireAfterDelay(new SCMHeadEventImpl(
@@ -276,8 +277,7 @@ public class PullRequestGHEventSubscriber extends GHEventsSubscriber {
             boolean fork = !src.getRepoOwner().equalsIgnoreCase(prOwnerName);
 
             Map<SCMHead, SCMRevision> result = new HashMap<>();
-            AzureDevOpsRepoSCMSourceContext context = new AzureDevOpsRepoSCMSourceContext(null, SCMHeadObserver.none())
-                    .withTraits(src.getTraits());
+            TraitsSnapshot context = src.getTraitsSnapshot();
             if (!fork && context.wantBranches()) {
                 final String branchName = ghPullRequest.getHead().getRef();
                 SCMHead head = new BranchSCMHead(branchName);
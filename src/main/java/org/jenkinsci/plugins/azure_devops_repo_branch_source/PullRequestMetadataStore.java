@@ -0,0 +1,277 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import hudson.XmlFile;
+import hudson.util.XStream2;
+import jenkins.scm.api.SCMSourceOwner;
+import jenkins.scm.api.metadata.ContributorMetadataAction;
+import jenkins.scm.api.metadata.ObjectMetadataAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A compact store of the metadata of the open pull requests of a single {@link AzureDevOpsRepoSCMSource} that
+ * survives restarts. The backing file lives in the root directory of the {@link SCMSourceOwner} and is only read
+ * the first time the metadata is needed.
+ */
+final class PullRequestMetadataStore {
+    /**
+     * Our logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(PullRequestMetadataStore.class.getName());
+    /**
+     * The XStream instance used to read and write the backing file.
+     */
+    private static final XStream2 XSTREAM = new XStream2();
+
+    static {
+        XSTREAM.alias("pull-request-metadata", Entry.class);
+    }
+
+    /**
+     * The source whose metadata we store.
+     */
+    @NonNull
+    private final AzureDevOpsRepoSCMSource source;
+    /**
+     * The entries keyed by pull request number.
+     */
+    @NonNull
+    private final IntObjectMap<Entry> entries = new IntObjectMap<>();
+    /**
+     * {@code true} once the backing file has been read.
+     */
+    private boolean loaded;
+    /**
+     * {@code true} when the entries have changed since the backing file was last written.
+     */
+    private boolean dirty;
+
+    PullRequestMetadataStore(@NonNull AzureDevOpsRepoSCMSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Gets the {@link ObjectMetadataAction} of the specified pull request.
+     *
+     * @param number the pull request number.
+     * @return the metadata or {@code null} if not known.
+     */
+    @CheckForNull
+    synchronized ObjectMetadataAction getMetadata(int number) {
+        Entry entry = load().get(number);
+        return entry == null || !entry.hasMetadata
+                ? null
+                : new ObjectMetadataAction(entry.title, entry.body, entry.url);
+    }
+
+    /**
+     * Gets the {@link ContributorMetadataAction} of the specified pull request.
+     *
+     * @param number the pull request number.
+     * @return the contributor or {@code null} if not known.
+     */
+    @CheckForNull
+    synchronized ContributorMetadataAction getContributor(int number) {
+        Entry entry = load().get(number);
+        return entry == null || entry.login == null
+                ? null
+                : new ContributorMetadataAction(entry.login, entry.name, entry.email);
+    }
+
+    /**
+     * Records the metadata of the specified pull request.
+     *
+     * @param number the pull request number.
+     * @param title  the title.
+     * @param body   the body.
+     * @param url    the URL.
+     */
+    synchronized void putMetadata(int number, @CheckForNull String title, @CheckForNull String body,
+                                  @CheckForNull String url) {
+        Entry entry = entry(number);
+        if (entry.hasMetadata
+                && Objects.equals(entry.title, title)
+                && Objects.equals(entry.body, body)
+                && Objects.equals(entry.url, url)) {
+            return;
+        }
+        entry.hasMetadata = true;
+        entry.title = title;
+        entry.body = body;
+        entry.url = url;
+        dirty = true;
+    }
+
+    /**
+     * Records the contributor of the specified pull request.
+     *
+     * @param number the pull request number.
+     * @param login  the login of the contributor.
+     * @param name   the display name of the contributor.
+     * @param email  the email address of the contributor.
+     */
+    synchronized void putContributor(int number, @NonNull String login, @CheckForNull String name,
+                                     @CheckForNull String email) {
+        Entry entry = entry(number);
+        if (login.equals(entry.login)
+                && Objects.equals(entry.name, name)
+                && Objects.equals(entry.email, email)) {
+            return;
+        }
+        // the same few contributors are typically behind many pull requests
+        entry.login = Util.intern(login);
+        entry.name = Util.intern(name);
+        entry.email = Util.intern(email);
+        dirty = true;
+    }
+
+    /**
+     * Discards the entries of any pull request not in the supplied collection.
+     *
+     * @param numbers the numbers of the pull requests to keep.
+     */
+    synchronized void retainAll(@NonNull Collection<Integer> numbers) {
+        if (load().retainAll(numbers)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the entries to the backing file if they have changed.
+     */
+    synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        XmlFile file = file();
+        if (file == null) {
+            // not attached to an owner yet, keep the entries in memory only
+            return;
+        }
+        // merge in anything already on disk before we overwrite it
+        load();
+        try {
+            file.write(new ArrayList<>(entries.values()));
+            dirty = false;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not save pull request metadata to " + file, e);
+        }
+    }
+
+    @NonNull
+    private Entry entry(int number) {
+        IntObjectMap<Entry> entries = load();
+        Entry entry = entries.get(number);
+        if (entry == null) {
+            entry = new Entry(number);
+            entries.put(number, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Reads the backing file the first time it is available.
+     *
+     * @return the entries.
+     */
+    @NonNull
+    private IntObjectMap<Entry> load() {
+        if (loaded) {
+            return entries;
+        }
+        XmlFile file = file();
+        if (file == null) {
+            // try again once we have an owner
+            return entries;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return entries;
+        }
+        try {
+            Object data = file.read();
+            if (data instanceof List) {
+                for (Object o : (List<?>) data) {
+                    if (o instanceof Entry) {
+                        Entry entry = (Entry) o;
+                        if (entries.get(entry.number) == null) {
+                            // anything recorded before we were loaded is newer
+                            entries.put(entry.number, entry);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not load pull request metadata from " + file, e);
+        }
+        return entries;
+    }
+
+    @CheckForNull
+    private XmlFile file() {
+        SCMSourceOwner owner = source.getOwner();
+        if (owner == null) {
+            return null;
+        }
+        return new XmlFile(XSTREAM, new File(owner.getRootDir(),
+                "azure-devops-pull-requests-" + Util.getDigestOf(source.getId()) + ".xml"));
+    }
+
+    /**
+     * The metadata of a single pull request.
+     */
+    private static final class Entry {
+        private final int number;
+        private boolean hasMetadata;
+        private String title;
+        private String body;
+        private String url;
+        private String login;
+        private String name;
+        private String email;
+
+        private Entry(int number) {
+            this.number = number;
+        }
+
+        private Object readResolve() {
+            login = Util.intern(login);
+            name = Util.intern(name);
+            email = Util.intern(email);
+            return this;
+        }
+    }
+}
@@ -125,6 +125,7 @@ public class PushGHEventSubscriber extends GHEventsSubscriber {
                     LOGGER.log(Level.WARNING, "Malformed repository URL {0}", repoUrl);
                     return;
                 }
+                WebhookHealth.delivered(changedRepository);
 
                 if (p.isCreated()) {
                     fireAfterDelay(new SCMHeadEventImpl(
@@ -293,8 +294,7 @@ public class PushGHEventSubscriber extends GHEventsSubscriber {
              * things for us, so we just claim a BranchSCMHead
              */
 
-            AzureDevOpsRepoSCMSourceContext context = new AzureDevOpsRepoSCMSourceContext(null, SCMHeadObserver.none())
-                    .withTraits(src.getTraits());
+            TraitsSnapshot context = src.getTraitsSnapshot();
             String ref = push.getRef();
             if (context.wantBranches() && !ref.startsWith(R_TAGS)) {
                 // we only want the branch details if the branch is actually built!
@@ -0,0 +1,144 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import org.kohsuke.github.GHRef;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time copy of the refs in some namespaces of a repository as returned by {@code listRefs()}, so that
+ * resolving a head name does not need to probe the pull request, branch and tag APIs in turn.
+ */
+final class RefsSnapshot {
+    /**
+     * How long a snapshot can be used for resolving head names.
+     */
+    private static final long ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0,
+            Integer.getInteger(RefsSnapshot.class.getName() + ".ttlSeconds", 30)));
+
+    @NonNull
+    private final String fullName;
+    /**
+     * The ref namespaces that were listed, e.g. {@code refs/heads/}.
+     */
+    @NonNull
+    private final Set<String> namespaces;
+    /**
+     * The object SHA-1 of each ref, keyed by full ref name.
+     */
+    @NonNull
+    private final Map<String, String> shas;
+    /**
+     * The refs that point to annotated tag objects rather than commits.
+     */
+    @NonNull
+    private final Set<String> annotatedTags;
+    private final long created;
+
+    private RefsSnapshot(@NonNull String fullName, @NonNull Set<String> namespaces, @NonNull Map<String, String> shas,
+                         @NonNull Set<String> annotatedTags) {
+        this.fullName = fullName;
+        this.namespaces = namespaces;
+        this.shas = shas;
+        this.annotatedTags = annotatedTags;
+        this.created = System.currentTimeMillis();
+    }
+
+    /**
+     * Takes a snapshot of the supplied refs.
+     *
+     * @param fullName   the full name of the repository.
+     * @param namespaces the ref namespaces that the refs were listed from.
+     * @param refs       the refs.
+     * @return the snapshot.
+     */
+    @NonNull
+    static RefsSnapshot of(@NonNull String fullName, @NonNull Set<String> namespaces, @NonNull Iterator<GHRef> refs) {
+        Map<String, String> shas = new TreeMap<>();
+        Set<String> annotatedTags = new HashSet<>();
+        while (refs.hasNext()) {
+            GHRef ref = refs.next();
+            String name = ref.getRef();
+            shas.put(name, Util.intern(ref.getObject().getSha()));
+            if ("tag".equalsIgnoreCase(ref.getObject().getType())) {
+                annotatedTags.add(name);
+            }
+        }
+        return new RefsSnapshot(fullName, Collections.unmodifiableSet(new HashSet<>(namespaces)), shas, annotatedTags);
+    }
+
+    /**
+     * Checks if this snapshot can still be used for the specified repository.
+     *
+     * @param fullName   the full name of the repository.
+     * @param namespaces the ref namespaces that need to have been listed.
+     * @return {@code true} if the snapshot is of the repository, covers the namespaces and has not expired.
+     */
+    boolean isFreshFor(@NonNull String fullName, @NonNull Set<String> namespaces) {
+        return this.fullName.equals(fullName)
+                && this.namespaces.containsAll(namespaces)
+                && System.currentTimeMillis() - created < ttlMillis;
+    }
+
+    /**
+     * Returns the full names of all the refs in order.
+     *
+     * @return the full names of all the refs.
+     */
+    @NonNull
+    Set<String> names() {
+        return Collections.unmodifiableSet(shas.keySet());
+    }
+
+    /**
+     * Returns the SHA-1 of the object that the specified ref points to.
+     *
+     * @param ref the full ref name.
+     * @return the SHA-1 or {@code null} if there is no such ref.
+     */
+    @CheckForNull
+    String getSha(@CheckForNull String ref) {
+        return ref == null ? null : shas.get(ref);
+    }
+
+    /**
+     * Checks if the specified ref points to an annotated tag object.
+     *
+     * @param ref the full ref name.
+     * @return {@code true} if the ref points to an annotated tag object.
+     */
+    boolean isAnnotatedTag(@NonNull String ref) {
+        return annotatedTags.contains(ref);
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The repositories and organizations offered by the configuration forms, remembered per endpoint, credentials and
+ * owner so that an owner with thousands of repositories is not listed in full every time a form is loaded or a field
+ * changes. A listing is used as is while fresh. Once it is stale it is still used, but refreshed in the background so
+ * that the next form gets the refreshed listing. Only a listing that has expired is waited for.
+ */
+final class RepositoryListingCache {
+    private static final Logger LOGGER = Logger.getLogger(RepositoryListingCache.class.getName());
+    /**
+     * How long a listing is used without refreshing it.
+     */
+    private static final long freshMillis = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(RepositoryListingCache.class.getName() + ".freshMinutes", 5)));
+    /**
+     * How long a listing can be used while it is refreshed in the background.
+     */
+    private static final long maxAgeMillis = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(RepositoryListingCache.class.getName() + ".maxAgeMinutes", 60)));
+    /**
+     * The threads that refresh stale listings.
+     */
+    private static final ExecutorService refreshExecutor;
+    /**
+     * The listings keyed by {@link #key(String, StandardCredentials, String, String)}.
+     */
+    private static final ConcurrentMap<String, Entry<?>> entries = new ConcurrentHashMap<>();
+
+    static {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new NamingThreadFactory(new DaemonThreadFactory(),
+                        RepositoryListingCache.class.getName() + ".refresh"));
+        executor.allowCoreThreadTimeOut(true);
+        refreshExecutor = executor;
+    }
+
+    private RepositoryListingCache() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * Gets the names of the repositories of an owner.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials or {@code null} for anonymous access.
+     * @param owner       the owner.
+     * @param loader      lists the repositories, returning {@code null} if the owner does not exist.
+     * @return the names or {@code null} if the owner does not exist.
+     * @throws IOException if the repositories had to be listed and could not be.
+     */
+    @CheckForNull
+    static Collection<String> repositories(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                                           @NonNull String owner, @NonNull Loader<Collection<String>> loader)
+            throws IOException {
+        return get(key(apiUri, credentials, "repositories", owner), loader);
+    }
+
+    /**
+     * Gets the organizations that the credentials are a member of.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials.
+     * @param loader      lists the avatar URLs of the organizations keyed by their names, returning {@code null} for
+     *                    anonymous access.
+     * @return the avatar URLs of the organizations keyed by their names or {@code null} for anonymous access.
+     * @throws IOException if the organizations had to be listed and could not be.
+     */
+    @CheckForNull
+    static Map<String, String> organizations(@CheckForNull String apiUri, @NonNull StandardCredentials credentials,
+                                             @NonNull Loader<Map<String, String>> loader) throws IOException {
+        return get(key(apiUri, credentials, "organizations", ""), loader);
+    }
+
+    /**
+     * Picks the names that match what has been typed so far, those starting with it before those only containing it.
+     *
+     * @param names the names.
+     * @param typed what has been typed so far.
+     * @param limit the most names to return.
+     * @return the matching names.
+     */
+    @NonNull
+    static List<String> matching(@NonNull Collection<String> names, @CheckForNull String typed, int limit) {
+        String lower = typed == null ? "" : typed.trim().toLowerCase(Locale.ENGLISH);
+        List<String> starting = new ArrayList<>();
+        List<String> containing = new ArrayList<>();
+        for (String name : names) {
+            String candidate = name.toLowerCase(Locale.ENGLISH);
+            if (candidate.startsWith(lower)) {
+                if (starting.size() < limit) {
+                    starting.add(name);
+                }
+            } else if (containing.size() < limit && candidate.contains(lower)) {
+                containing.add(name);
+            }
+        }
+        for (String name : containing) {
+            if (starting.size() >= limit) {
+                break;
+            }
+            starting.add(name);
+        }
+        return starting;
+    }
+
+    /**
+     * Discards every listing.
+     */
+    static void clear() {
+        entries.clear();
+    }
+
+    @CheckForNull
+    @SuppressWarnings("unchecked")
+    private static <T> T get(@NonNull final String key, @NonNull Loader<T> loader) throws IOException {
+        final Entry<T> entry = (Entry<T>) entries.get(key);
+        long age = entry == null ? Long.MAX_VALUE : System.currentTimeMillis() - entry.fetched;
+        if (entry != null && age < freshMillis) {
+            return entry.value;
+        }
+        if (entry != null && age < maxAgeMillis) {
+            if (entry.refreshing.compareAndSet(false, true)) {
+                final Loader<T> refresh = loader;
+                refreshExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            load(key, refresh);
+                        } catch (IOException | RuntimeException e) {
+                            LOGGER.log(Level.FINE, "Could not refresh " + key, e);
+                        } finally {
+                            entry.refreshing.set(false);
+                        }
+                    }
+                });
+            }
+            return entry.value;
+        }
+        return load(key, loader);
+    }
+
+    @CheckForNull
+    private static <T> T load(@NonNull String key, @NonNull Loader<T> loader) throws IOException {
+        T value = loader.load();
+        if (value == null) {
+            // nothing worth remembering, the owner may be created at any time
+            entries.remove(key);
+        } else if (maxAgeMillis > 0) {
+            entries.put(key, new Entry<>(value));
+        }
+        return value;
+    }
+
+    @NonNull
+    private static String key(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                              @NonNull String kind, @NonNull String owner) {
+        return RepositoryUriResolver.hostnameFromApiUri(apiUri).toLowerCase(Locale.ENGLISH)
+                + "/" + Connector.digestOf(credentials)
+                + "/" + kind
+                + "/" + owner.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Lists what is to be cached.
+     *
+     * @param <T> the type of the listing.
+     */
+    interface Loader<T> {
+        /**
+         * Lists what is to be cached.
+         *
+         * @return the listing or {@code null} if there is nothing to list.
+         * @throws IOException if the listing failed.
+         */
+        @CheckForNull
+        T load() throws IOException;
+    }
+
+    private static final class Entry<T> {
+        @NonNull
+        private final T value;
+        private final long fetched = System.currentTimeMillis();
+        /**
+         * Set while a background refresh is pending so that only one is queued at a time.
+         */
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(@NonNull T value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.TaskListener;
+import jenkins.scm.api.trait.SCMTrait;
+import jenkins.scm.impl.trait.RegexSCMSourceFilterTrait;
+import jenkins.scm.impl.trait.WildcardSCMSourceFilterTrait;
+import org.apache.commons.lang.StringUtils;
+import org.kohsuke.github.GHException;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.PagedSearchIterable;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A search for the repositories of a {@link AzureDevOpsRepoSCMNavigator} owner that only returns the repositories
+ * that the navigator could accept, so that an organization with thousands of repositories does not have to be listed
+ * in full to find the few dozen that are wanted. The navigator still applies all of its filters to what is returned,
+ * the search only has to return every repository that could be accepted.
+ * <p>
+ * The search index is only eventually consistent, so a repository that it has not picked up yet would be missing from
+ * the results and its project removed. The search is therefore only used when topics are required, which the listing
+ * cannot check, and the repositories of existing projects that it did not return are looked up directly, see
+ * {@link #withExisting(GitHub, OwnerCache.Owner, Iterable, Collection, TaskListener)}. A new repository only shows up
+ * once it has been indexed.
+ * <p>
+ * The visibility, type and name only narrow such a search. Without topics they are not sent to GitHub at all: the
+ * organization and user listings of the API client cannot be filtered by type, so the full listing is fetched and
+ * then filtered by the navigator.
+ * <p>
+ * The search API matches names by words rather than by prefix, so the name is only searched for the complete words
+ * at the start of the literal prefix of the repository name filters. A search that could not return every match,
+ * because it is capped or timed out, is not used.
+ */
+final class RepositoryQuery {
+    /**
+     * The search API returns no more than this many results for a query.
+     */
+    static final int MAX_RESULTS = 1000;
+
+    /**
+     * The words that the name must start with or {@code null}.
+     */
+    @CheckForNull
+    private final String name;
+    /**
+     * The topics that repositories must have.
+     */
+    @NonNull
+    private final Set<String> topics;
+    /**
+     * Whether repositories must be private or {@code null} for both.
+     */
+    @CheckForNull
+    private final Boolean privateRepositories;
+    /**
+     * Whether repositories must be forks or {@code null} for both.
+     */
+    @CheckForNull
+    private final Boolean forkRepositories;
+    /**
+     * {@code true} to leave out archived repositories.
+     */
+    private final boolean excludeArchived;
+
+    private RepositoryQuery(@CheckForNull String name, @NonNull Set<String> topics,
+                            @CheckForNull Boolean privateRepositories, @CheckForNull Boolean forkRepositories,
+                            boolean excludeArchived) {
+        this.name = name;
+        this.topics = topics;
+        this.privateRepositories = privateRepositories;
+        this.forkRepositories = forkRepositories;
+        this.excludeArchived = excludeArchived;
+    }
+
+    /**
+     * Derives the query from a navigator request and the navigator traits.
+     *
+     * @param request the request.
+     * @param traits  the navigator traits.
+     * @return the query or {@code null} if searching was not asked for or no topics are required.
+     */
+    @CheckForNull
+    static RepositoryQuery of(@NonNull AzureDevOpsRepoSCMNavigatorRequest request,
+                              @NonNull Collection<? extends SCMTrait<?>> traits) {
+        if (!request.isRepositorySearch()) {
+            return null;
+        }
+        if (request.getTopics().isEmpty()) {
+            return null;
+        }
+        return new RepositoryQuery(nameOf(traits), request.getTopics(), request.getPrivateRepositories(),
+                request.getForkRepositories(), request.isExcludeArchivedRepositories());
+    }
+
+    /**
+     * Derives the words that the name of every repository accepted by the repository name filters starts with.
+     *
+     * @param traits the navigator traits.
+     * @return the words or {@code null} if any repository name may be accepted.
+     */
+    @CheckForNull
+    static String nameOf(@NonNull Collection<? extends SCMTrait<?>> traits) {
+        for (SCMTrait<?> trait : traits) {
+            List<String> literals = null;
+            if (trait instanceof WildcardSCMSourceFilterTrait) {
+                literals = literalsOfWildcards(((WildcardSCMSourceFilterTrait) trait).getIncludes());
+            } else if (trait instanceof RegexSCMSourceFilterTrait) {
+                literals = literalsOfRegex(((RegexSCMSourceFilterTrait) trait).getRegex());
+            }
+            String name = literals == null ? null : commonWords(literals);
+            if (name != null) {
+                // every filter has to accept a repository so any one of them bounds the names
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Derives the literal prefixes, truncated to complete words, of space separated wildcard includes.
+     *
+     * @param includes the includes.
+     * @return the literal prefixes or {@code null} if any name may be accepted.
+     */
+    @CheckForNull
+    private static List<String> literalsOfWildcards(@CheckForNull String includes) {
+        List<String> literals = new ArrayList<>();
+        for (String include : StringUtils.split(StringUtils.defaultString(includes), ' ')) {
+            int index = include.indexOf('*');
+            String literal = index == -1 ? include : wordPrefix(include.substring(0, index));
+            if (literal.isEmpty()) {
+                return null;
+            }
+            literals.add(literal);
+        }
+        return literals.isEmpty() ? null : literals;
+    }
+
+    /**
+     * Derives the literal prefix, truncated to complete words, of a regular expression that must match the whole
+     * name.
+     *
+     * @param regex the regular expression.
+     * @return the literal prefix or {@code null} if any name may be accepted.
+     */
+    @CheckForNull
+    private static List<String> literalsOfRegex(@CheckForNull String regex) {
+        if (regex == null || regex.indexOf('|') != -1) {
+            // alternation could apply to any part, do not try to be clever
+            return null;
+        }
+        int start = regex.startsWith("^") ? 1 : 0;
+        int end = start;
+        while (end < regex.length() && HeadNameScope.REGEX_SPECIAL.indexOf(regex.charAt(end)) == -1) {
+            end++;
+        }
+        String literal;
+        if (end == regex.length() || regex.charAt(end) == '$' && end == regex.length() - 1) {
+            // no special characters at all, so an exact name
+            literal = regex.substring(start, end);
+        } else {
+            if ("?*{".indexOf(regex.charAt(end)) != -1 && end > start) {
+                // the last literal character is quantified so is not part of the prefix
+                end--;
+            }
+            literal = wordPrefix(regex.substring(start, end));
+        }
+        return literal.isEmpty() ? null : Collections.singletonList(literal);
+    }
+
+    /**
+     * Works out the complete words that all the literals start with.
+     *
+     * @param literals the literals, each ending on a word boundary.
+     * @return the words or {@code null} if there are none.
+     */
+    @CheckForNull
+    private static String commonWords(@NonNull List<String> literals) {
+        String common = literals.get(0);
+        for (String literal : literals) {
+            if (!literal.equals(common)) {
+                common = wordPrefix(StringUtils.getCommonPrefix(new String[]{common, literal}));
+            }
+        }
+        int start = 0;
+        int end = common.length();
+        while (start < end && !Character.isLetterOrDigit(common.charAt(start))) {
+            start++;
+        }
+        while (end > start && !Character.isLetterOrDigit(common.charAt(end - 1))) {
+            end--;
+        }
+        return start == end ? null : common.substring(start, end);
+    }
+
+    /**
+     * Truncates a literal prefix to the last complete word.
+     *
+     * @param literal the literal prefix.
+     * @return the prefix up to and including the last character that separates words or the empty string.
+     */
+    @NonNull
+    private static String wordPrefix(@NonNull String literal) {
+        for (int i = literal.length() - 1; i >= 0; i--) {
+            if (!Character.isLetterOrDigit(literal.charAt(i))) {
+                return literal.substring(0, i + 1);
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Builds the search query for the repositories of an owner.
+     *
+     * @param owner the owner.
+     * @return the search query.
+     */
+    @NonNull
+    String toQuery(@NonNull OwnerCache.Owner owner) {
+        StringBuilder query = new StringBuilder();
+        if (name != null) {
+            query.append(name).append(" in:name ");
+        }
+        query.append(owner.getKind() == OwnerCache.Kind.ORGANIZATION ? "org:" : "user:").append(owner.getLogin());
+        for (String topic : topics) {
+            query.append(" topic:").append(topic);
+        }
+        if (privateRepositories != null) {
+            query.append(privateRepositories ? " is:private" : " is:public");
+        }
+        if (forkRepositories == null) {
+            // forks are left out of searches unless asked for
+            query.append(" fork:true");
+        } else if (forkRepositories) {
+            query.append(" fork:only");
+        }
+        if (excludeArchived) {
+            query.append(" archived:false");
+        }
+        return query.toString();
+    }
+
+    /**
+     * Searches for the repositories of an owner.
+     *
+     * @param github   the connection.
+     * @param owner    the owner.
+     * @param listener the listener to report the search to.
+     * @return the repositories or {@code null} if the search could not return every match.
+     */
+    @CheckForNull
+    Iterable<GHRepository> search(@NonNull GitHub github, @NonNull OwnerCache.Owner owner,
+                                  @NonNull TaskListener listener) {
+        String query = toQuery(owner);
+        listener.getLogger().println(AzureDevOpsRepoConsoleNote.create(System.currentTimeMillis(), String.format(
+                "Searching for repositories matching %s", query
+        )));
+        PagedSearchIterable<GHRepository> results = github.searchRepositories().q(query).list();
+        results.withPageSize(100);
+        int total;
+        boolean incomplete;
+        try {
+            // fetches the first page
+            total = results.getTotalCount();
+            incomplete = results.isIncomplete();
+        } catch (GHException e) {
+            listener.getLogger().format("Could not search for repositories: %s%n",
+                    e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return null;
+        } catch (Error e) {
+            // the paged iterable wraps a failure to fetch the first page in an Error
+            if (!(e.getCause() instanceof IOException)) {
+                throw e;
+            }
+            listener.getLogger().format("Could not search for repositories: %s%n", e.getCause().getMessage());
+            return null;
+        }
+        if (incomplete || total > MAX_RESULTS) {
+            listener.getLogger().format("The search for repositories %s, not using it%n",
+                    incomplete ? "timed out" : "matched " + total + " repositories");
+            return null;
+        }
+        listener.getLogger().format("%d repositories matched the search%n", total);
+        return results;
+    }
+
+    /**
+     * Adds the repositories of existing projects that the search did not return, as the search index may not have
+     * picked up a change to them yet. Each of those repositories is looked up directly and kept if it still has the
+     * topics, so that its project is not removed because of the index lag. A project whose repository has been
+     * deleted or no longer has the topics is left out as before.
+     *
+     * @param github   the connection.
+     * @param owner    the owner.
+     * @param found    the repositories returned by the search.
+     * @param existing the names of the existing projects.
+     * @param listener the listener to report the repositories that were kept to.
+     * @return the repositories returned by the search followed by the existing ones that still match.
+     * @throws IOException          if a repository could not be looked up.
+     * @throws InterruptedException if interrupted while waiting for the rate limit.
+     */
+    @NonNull
+    List<GHRepository> withExisting(@NonNull GitHub github, @NonNull OwnerCache.Owner owner,
+                                    @NonNull Iterable<GHRepository> found, @NonNull Collection<String> existing,
+                                    @NonNull TaskListener listener) throws IOException, InterruptedException {
+        List<GHRepository> repositories = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (GHRepository repository : found) {
+            repositories.add(repository);
+            names.add(repository.getName().toLowerCase(Locale.ENGLISH));
+        }
+        for (String name : existing) {
+            if (!names.add(name.toLowerCase(Locale.ENGLISH))) {
+                continue;
+            }
+            Connector.checkApiRateLimit(listener, github);
+            GHRepository repository;
+            try {
+                repository = github.getRepository(owner.getLogin() + "/" + name);
+            } catch (FileNotFoundException e) {
+                continue; // deleted, or the project is not for a repository
+            }
+            if (!repository.getName().equalsIgnoreCase(name)
+                    || !repository.getOwnerName().equalsIgnoreCase(owner.getLogin())) {
+                continue; // renamed or transferred, so the search will find it under its new name
+            }
+            if (matches(repository)) {
+                listener.getLogger().format("Keeping %s, which the search has not picked up yet%n", name);
+                repositories.add(repository);
+            }
+        }
+        return repositories;
+    }
+
+    /**
+     * Checks whether a single repository has the topics of this query. The topics are fetched from the repository
+     * rather than searched for, as the search API has a much lower rate limit and may not have indexed the repository.
+     *
+     * @param repository the repository.
+     * @return {@code true} if the repository has all of the topics.
+     * @throws IOException if the topics could not be fetched.
+     */
+    boolean matches(@NonNull GHRepository repository) throws IOException {
+        Set<String> present = new HashSet<>();
+        for (String topic : repository.listTopics()) {
+            // topics are always lower case
+            present.add(topic.toLowerCase(Locale.ENGLISH));
+        }
+        return present.containsAll(topics);
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.util.ListBoxModel;
+import jenkins.scm.api.SCMNavigator;
+import jenkins.scm.api.trait.SCMNavigatorContext;
+import jenkins.scm.api.trait.SCMNavigatorTrait;
+import jenkins.scm.api.trait.SCMNavigatorTraitDescriptor;
+import org.apache.commons.lang.StringUtils;
+import org.jenkinsci.Symbol;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A {@link SCMNavigatorTrait} for GitHub that finds the repositories of an organization with the topics using the
+ * search API rather than listing all of them. The visibility and type are passed to the search together with any
+ * literal prefix of the repository name filters, so that only the repositories that could be accepted are returned.
+ * Without topics the visibility and type filter the listing instead.
+ */
+public class RepositorySearchTrait extends SCMNavigatorTrait {
+    /**
+     * Either visibility or type.
+     */
+    public static final String ANY = "any";
+    /**
+     * Only public repositories.
+     */
+    public static final String PUBLIC = "public";
+    /**
+     * Only private repositories.
+     */
+    public static final String PRIVATE = "private";
+    /**
+     * Only repositories that are not forks.
+     */
+    public static final String SOURCES = "sources";
+    /**
+     * Only forks.
+     */
+    public static final String FORKS = "forks";
+
+    /**
+     * The space or comma separated topics that repositories must all have.
+     */
+    @NonNull
+    private final String topics;
+    /**
+     * The visibility of the repositories.
+     */
+    @NonNull
+    private final String visibility;
+    /**
+     * The type of the repositories.
+     */
+    @NonNull
+    private final String type;
+
+    /**
+     * Constructor for stapler.
+     *
+     * @param topics     the space or comma separated topics that repositories must all have.
+     * @param visibility the visibility of the repositories, one of {@link #ANY}, {@link #PUBLIC} or {@link #PRIVATE}.
+     * @param type       the type of the repositories, one of {@link #ANY}, {@link #SOURCES} or {@link #FORKS}.
+     */
+    @DataBoundConstructor
+    public RepositorySearchTrait(@CheckForNull String topics, @CheckForNull String visibility,
+                                 @CheckForNull String type) {
+        this.topics = StringUtils.defaultString(topics).trim();
+        this.visibility = StringUtils.defaultIfBlank(visibility, ANY);
+        this.type = StringUtils.defaultIfBlank(type, ANY);
+    }
+
+    /**
+     * Returns the space or comma separated topics that repositories must all have.
+     *
+     * @return the topics.
+     */
+    @NonNull
+    public String getTopics() {
+        return topics;
+    }
+
+    /**
+     * Returns the visibility of the repositories.
+     *
+     * @return the visibility of the repositories.
+     */
+    @NonNull
+    public String getVisibility() {
+        return visibility;
+    }
+
+    /**
+     * Returns the type of the repositories.
+     *
+     * @return the type of the repositories.
+     */
+    @NonNull
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void decorateContext(SCMNavigatorContext<?, ?> context) {
+        AzureDevOpsRepoSCMNavigatorContext ctx = (AzureDevOpsRepoSCMNavigatorContext) context;
+        ctx.withRepositorySearch(true);
+        // topics are always lower case
+        ctx.withTopics(Arrays.asList(StringUtils.split(topics.toLowerCase(Locale.ENGLISH), " ,")));
+        if (PUBLIC.equals(visibility)) {
+            ctx.withPrivateRepositories(false);
+        } else if (PRIVATE.equals(visibility)) {
+            ctx.withPrivateRepositories(true);
+        }
+        if (SOURCES.equals(type)) {
+            ctx.withForkRepositories(false);
+        } else if (FORKS.equals(type)) {
+            ctx.withForkRepositories(true);
+        }
+    }
+
+    /**
+     * Our descriptor.
+     */
+    @Symbol("gitHubRepositorySearch")
+    @Extension
+    public static class DescriptorImpl extends SCMNavigatorTraitDescriptor {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getDisplayName() {
+            return Messages.RepositorySearchTrait_displayName();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Class<? extends SCMNavigatorContext> getContextClass() {
+            return AzureDevOpsRepoSCMNavigatorContext.class;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Class<? extends SCMNavigator> getNavigatorClass() {
+            return AzureDevOpsRepoSCMNavigator.class;
+        }
+
+        /**
+         * Populates the visibility options.
+         *
+         * @return the visibility options.
+         */
+        @NonNull
+        @Restricted(NoExternalUse.class)
+        @SuppressWarnings("unused") // stapler
+        public ListBoxModel doFillVisibilityItems() {
+            ListBoxModel result = new ListBoxModel();
+            result.add(Messages.RepositorySearchTrait_anyVisibility(), ANY);
+            result.add(Messages.RepositorySearchTrait_public(), PUBLIC);
+            result.add(Messages.RepositorySearchTrait_private(), PRIVATE);
+            return result;
+        }
+
+        /**
+         * Populates the type options.
+         *
+         * @return the type options.
+         */
+        @NonNull
+        @Restricted(NoExternalUse.class)
+        @SuppressWarnings("unused") // stapler
+        public ListBoxModel doFillTypeItems() {
+            ListBoxModel result = new ListBoxModel();
+            result.add(Messages.RepositorySearchTrait_anyType(), ANY);
+            result.add(Messages.RepositorySearchTrait_sources(), SOURCES);
+            result.add(Messages.RepositorySearchTrait_forks(), FORKS);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.cloudbees.plugins.credentials.common.StandardCredentials;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+import hudson.model.TaskListener;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.HttpException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A validated connection to a repository. Opening a session checks the API URL, the rate limit and the credentials
+ * and then fetches the repository. The outcome is remembered for a short while so that the operations triggered by
+ * a single event do not each repeat the same handful of requests before doing any useful work. The rate limit is
+ * still checked when the outcome is reused, against the rate limit reported by the last response.
+ */
+final class RepositorySession implements Closeable {
+    /**
+     * How long a validated repository can be reused for.
+     */
+    private static final long ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0,
+            Integer.getInteger(RepositorySession.class.getName() + ".ttlSeconds", 30)));
+    /**
+     * The validated repositories.
+     */
+    private static final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The connection, which is released when the session is closed.
+     */
+    @NonNull
+    private final GitHub github;
+    /**
+     * The repository.
+     */
+    @NonNull
+    private final GHRepository repository;
+
+    private RepositorySession(@NonNull GitHub github, @NonNull GHRepository repository) {
+        this.github = github;
+        this.repository = repository;
+    }
+
+    /**
+     * Opens a session on the specified repository.
+     *
+     * @param apiUri      the API endpoint.
+     * @param credentials the credentials or {@code null} for anonymous access.
+     * @param fullName    the full name of the repository.
+     * @param listener    the listener to report the checks to.
+     * @return the session, which must be closed by the caller.
+     * @throws IOException          if the checks fail or the repository could not be retrieved.
+     * @throws InterruptedException if interrupted while waiting for the rate limit.
+     */
+    @NonNull
+    static RepositorySession open(@CheckForNull String apiUri, @CheckForNull StandardCredentials credentials,
+                                  @NonNull String fullName, @NonNull TaskListener listener)
+            throws IOException, InterruptedException {
+        GitHub github = Connector.connect(apiUri, credentials);
+        boolean opened = false;
+        try {
+            // connections are shared per endpoint and credentials, so the connection identifies both
+            Key key = new Key(github, fullName);
+            Entry entry = entries.get(key);
+            if (entry == null || entry.isExpired()) {
+                checkApiUrlValidity(apiUri, github, credentials);
+                Connector.checkApiRateLimit(listener, github);
+                Connector.checkConnectionValidity(apiUri, listener, credentials, github);
+                entry = new Entry(github.getRepository(fullName));
+                if (ttlMillis > 0) {
+                    entries.put(key, entry);
+                }
+            } else if (github.lastRateLimit() != null) {
+                // costs no request while the last reported rate limit has not reset
+                Connector.checkApiRateLimit(listener, github);
+            }
+            RepositorySession session = new RepositorySession(github, entry.repository);
+            opened = true;
+            return session;
+        } finally {
+            if (!opened) {
+                Connector.release(github);
+            }
+        }
+    }
+
+    /**
+     * Records a repository that the caller has already fetched over a connection it has validated, so that a session
+     * opened on the repository shortly afterwards, such as by the sources that a navigator creates while it lists the
+     * repositories, neither repeats the checks nor fetches the repository again.
+     *
+     * @param github     the validated connection, which must be the one {@link Connector#connect} will hand out for
+     *                   the endpoint and credentials of the sessions.
+     * @param repository the repository.
+     */
+    static void prime(@NonNull GitHub github, @NonNull GHRepository repository) {
+        if (ttlMillis > 0) {
+            entries.put(new Key(github, repository.getFullName()), new Entry(repository));
+        }
+    }
+
+    /**
+     * Checks that the API endpoint is reachable.
+     *
+     * @param apiUri      the API endpoint.
+     * @param github      the connection.
+     * @param credentials the credentials or {@code null} for anonymous access.
+     * @throws IOException if the endpoint is not reachable.
+     */
+    static void checkApiUrlValidity(@CheckForNull String apiUri, @NonNull GitHub github,
+                                    @CheckForNull StandardCredentials credentials) throws IOException {
+        try {
+            Connector.checkApiUrlValidity(github, credentials);
+        } catch (HttpException e) {
+            String message = String.format("It seems %s is unreachable",
+                    apiUri == null ? AzureDevOpsRepoSCMSource.GITHUB_URL : apiUri);
+            throw new IOException(message, e);
+        }
+    }
+
+    /**
+     * Returns the connection.
+     *
+     * @return the connection.
+     */
+    @NonNull
+    GitHub getGitHub() {
+        return github;
+    }
+
+    /**
+     * Returns the repository.
+     *
+     * @return the repository.
+     */
+    @NonNull
+    GHRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Releases the connection.
+     */
+    @Override
+    public void close() {
+        Connector.release(github);
+    }
+
+    private static final class Key {
+        private final GitHub github;
+        private final String fullName;
+
+        private Key(GitHub github, String fullName) {
+            this.github = github;
+            this.fullName = fullName.toLowerCase(Locale.ENGLISH);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return github == that.github && fullName.equals(that.fullName);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(github) + fullName.hashCode();
+        }
+    }
+
+    private static final class Entry {
+        private final GHRepository repository;
+        private final long expires = System.currentTimeMillis() + ttlMillis;
+
+        private Entry(GHRepository repository) {
+            this.repository = repository;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expires;
+        }
+    }
+
+    /**
+     * Discards the expired sessions so that we do not hold on to connections that are no longer in use.
+     */
+    @Extension
+    public static class ExpiredSessionPurger extends PeriodicWork {
+
+        @Override
+        public long getRecurrencePeriod() {
+            return TimeUnit.MINUTES.toMillis(1);
+        }
+
+        @Override
+        protected void doRun() throws Exception {
+            for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+                if (iterator.next().isExpired()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
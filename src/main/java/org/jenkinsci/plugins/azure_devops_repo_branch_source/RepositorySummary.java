@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.kohsuke.github.GHRepository;
+
+import java.net.URL;
+
+/**
+ * The details of a {@link GHRepository} that a {@link AzureDevOpsRepoSCMSource} needs to keep between calls.
+ * Holding on to the {@link GHRepository} itself would retain the full parsed response and its owner graph for
+ * every source, so instead we keep one shared instance of this summary per repository.
+ */
+final class RepositorySummary {
+    /**
+     * The canonical instances, shared by all the sources of the same repository.
+     */
+    private static final Interner<RepositorySummary> INTERNER = Interners.newWeakInterner();
+
+    @NonNull
+    private final URL htmlUrl;
+
+    private RepositorySummary(@NonNull URL htmlUrl) {
+        this.htmlUrl = htmlUrl;
+    }
+
+    /**
+     * Returns the shared summary of the supplied repository.
+     *
+     * @param repository the repository.
+     * @return the summary.
+     */
+    @NonNull
+    static RepositorySummary of(@NonNull GHRepository repository) {
+        return INTERNER.intern(new RepositorySummary(repository.getHtmlUrl()));
+    }
+
+    @NonNull
+    URL getHtmlUrl() {
+        return htmlUrl;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RepositorySummary that = (RepositorySummary) o;
+        // compare the external forms as URL.equals may resolve the host name
+        return htmlUrl.toExternalForm().equals(that.htmlUrl.toExternalForm());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return htmlUrl.toExternalForm().hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return htmlUrl.toExternalForm();
+    }
+}
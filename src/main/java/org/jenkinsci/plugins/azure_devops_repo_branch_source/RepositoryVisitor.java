@@ -0,0 +1,301 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.TaskListener;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import hudson.util.StreamTaskListener;
+import jenkins.scm.api.trait.SCMNavigatorRequest;
+import org.kohsuke.github.GitHub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Processes the repositories found by a navigator scan, optionally several at a time. With a parallelism of one (the
+ * default) each repository is processed on the calling thread as it is found. With more, up to that many
+ * repositories are processed concurrently, and {@link #visit(String)} blocks while they are all busy so the caller
+ * still paces the listing to the rate at which repositories are processed. Each concurrent repository checks the rate
+ * limit again before it starts and logs to its own buffer. Either way the log and the witness see the repositories
+ * in the order they were found.
+ * <p>
+ * Processing a repository observes its project and completes it, which is where the project is recognized and so
+ * where most of the time goes. Those calls are therefore made concurrently for different repositories, and only
+ * their order of reporting is restored. scm-api does not promise that an {@link jenkins.scm.api.SCMSourceObserver}
+ * tolerates this, so a parallelism of more than one requires an observer that does, as the organization folders of
+ * branch-api do by coordinating the updates of their children. This is why processing is sequential by default.
+ */
+final class RepositoryVisitor implements Closeable {
+    /**
+     * How many repositories to process at a time. More than one requires an observer that can be called from several
+     * threads at once.
+     */
+    static /*mostly final*/ int PARALLELISM = Math.max(1,
+            Integer.getInteger(RepositoryVisitor.class.getName() + ".parallelism", 1));
+    /**
+     * The threads that process repositories. Each scan bounds how many it uses.
+     */
+    private static final ExecutorService executor = Executors.newCachedThreadPool(
+            new NamingThreadFactory(new DaemonThreadFactory(), RepositoryVisitor.class.getName())
+    );
+    /**
+     * The buffered listener of the repository being processed on the current thread.
+     */
+    private static final ThreadLocal<TaskListener> CURRENT_LISTENER = new ThreadLocal<>();
+
+    @NonNull
+    private final SCMNavigatorRequest request;
+    @NonNull
+    private final SCMNavigatorRequest.SourceLambda sourceFactory;
+    @NonNull
+    private final SCMNavigatorRequest.Witness witness;
+    @NonNull
+    private final GitHub github;
+    @NonNull
+    private final TaskListener listener;
+    private final int parallelism;
+    /**
+     * Bounds how many repositories are being processed.
+     */
+    private final Semaphore permits;
+    /**
+     * The repositories being processed, in the order they were found.
+     */
+    private final Deque<Visit> pending = new ArrayDeque<>();
+    /**
+     * Set once the request has completed.
+     */
+    private boolean completed;
+
+    /**
+     * Constructor.
+     *
+     * @param request       the request.
+     * @param sourceFactory the factory of the sources.
+     * @param witness       the witness.
+     * @param github        the connection, to check the rate limit with.
+     * @param listener      the listener of the scan.
+     * @param parallelism   how many repositories to process at a time.
+     */
+    RepositoryVisitor(@NonNull SCMNavigatorRequest request, @NonNull SCMNavigatorRequest.SourceLambda sourceFactory,
+                      @NonNull SCMNavigatorRequest.Witness witness, @NonNull GitHub github,
+                      @NonNull TaskListener listener, int parallelism) {
+        this.request = request;
+        this.sourceFactory = sourceFactory;
+        this.witness = witness;
+        this.github = github;
+        this.listener = listener;
+        this.parallelism = Math.max(1, parallelism);
+        this.permits = new Semaphore(this.parallelism);
+    }
+
+    /**
+     * Processes a repository.
+     *
+     * @param name        the name of the repository.
+     * @param recognition the recognition of the repository against its watermarks or {@code null}.
+     * @return {@code true} if the request has completed and no more repositories should be visited.
+     * @throws IOException          if processing a repository failed.
+     * @throws InterruptedException if interrupted.
+     */
+    boolean visit(@NonNull String name, @CheckForNull RepositoryWatermarks.Recognition recognition)
+            throws IOException, InterruptedException {
+        if (completed) {
+            return true;
+        }
+        if (parallelism == 1) {
+            completed = process(name, recognition, witness);
+            return completed;
+        }
+        permits.acquire();
+        Visit visit = new Visit(name, recognition);
+        try {
+            visit.future = executor.submit(visit);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        pending.add(visit);
+        drain(false);
+        return completed;
+    }
+
+    /**
+     * Waits for all the repositories to be processed.
+     *
+     * @return {@code true} if the request has completed.
+     * @throws IOException          if processing a repository failed.
+     * @throws InterruptedException if interrupted.
+     */
+    boolean finish() throws IOException, InterruptedException {
+        drain(true);
+        return completed;
+    }
+
+    /**
+     * Stops processing any repositories still in flight, for example because the listing failed.
+     */
+    @Override
+    public void close() {
+        for (Visit visit : pending) {
+            visit.future.cancel(true);
+        }
+        pending.clear();
+    }
+
+    /**
+     * Gets the listener to log to on the current thread, so that a repository processed concurrently with others logs
+     * to its own buffer rather than interleaving with them.
+     *
+     * @param listener the listener that would otherwise be logged to.
+     * @return the buffered listener of the repository being processed on the current thread or the supplied listener.
+     */
+    @NonNull
+    static TaskListener listenerOf(@NonNull TaskListener listener) {
+        TaskListener buffered = CURRENT_LISTENER.get();
+        return buffered != null ? buffered : listener;
+    }
+
+    private boolean process(@NonNull String name, @CheckForNull RepositoryWatermarks.Recognition recognition,
+                            @NonNull SCMNavigatorRequest.Witness witness) throws IOException, InterruptedException {
+        if (recognition == null) {
+            return request.process(name, sourceFactory, null, witness);
+        }
+        boolean succeeded = false;
+        recognition.enter();
+        try {
+            boolean result = request.process(name, sourceFactory, null, witness);
+            succeeded = true;
+            return result;
+        } finally {
+            recognition.exit(succeeded);
+        }
+    }
+
+    /**
+     * Reports the processed repositories to the witness in the order they were found.
+     *
+     * @param wait {@code true} to wait for all the repositories to be processed.
+     * @throws IOException          if processing a repository failed.
+     * @throws InterruptedException if interrupted.
+     */
+    private void drain(boolean wait) throws IOException, InterruptedException {
+        Throwable failure = null;
+        while (!pending.isEmpty()) {
+            Visit visit = pending.peek();
+            if (!wait && failure == null && !visit.future.isDone()) {
+                return;
+            }
+            try {
+                if (visit.future.get()) {
+                    completed = true;
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                close();
+                throw e;
+            }
+            pending.remove();
+            visit.replay();
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof InterruptedException) {
+            throw (InterruptedException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IOException(failure);
+        }
+    }
+
+    /**
+     * The processing of a single repository, buffering what is logged and witnessed until it can be reported in order.
+     */
+    private final class Visit implements Callable<Boolean>, SCMNavigatorRequest.Witness {
+        private final String name;
+        private final RepositoryWatermarks.Recognition recognition;
+        private final List<String> names = new ArrayList<>(1);
+        private final List<Boolean> matches = new ArrayList<>(1);
+        private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+        private Future<Boolean> future;
+
+        private Visit(String name, RepositoryWatermarks.Recognition recognition) {
+            this.name = name;
+            this.recognition = recognition;
+        }
+
+        @Override
+        public Boolean call() throws Exception {
+            TaskListener buffered = new StreamTaskListener(log, StandardCharsets.UTF_8);
+            CURRENT_LISTENER.set(buffered);
+            try {
+                // the listing checked the rate limit when this was queued, other repositories may have used it since
+                Connector.checkApiRateLimit(buffered, github);
+                return process(name, recognition, this);
+            } finally {
+                CURRENT_LISTENER.remove();
+                buffered.getLogger().flush();
+                permits.release();
+            }
+        }
+
+        @Override
+        public synchronized void record(@NonNull String name, boolean isMatch) {
+            names.add(name);
+            matches.add(isMatch);
+        }
+
+        private synchronized void replay() throws IOException {
+            log.writeTo(listener.getLogger());
+            for (int i = 0; i < names.size(); i++) {
+                witness.record(names.get(i), matches.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import hudson.XmlFile;
+import hudson.model.Items;
+import hudson.model.TaskListener;
+import hudson.util.XStream2;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadObserver;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.SCMSourceOwner;
+import jenkins.scm.api.trait.SCMTrait;
+import org.kohsuke.github.GHRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * What an {@link AzureDevOpsRepoSCMNavigator} learned about each repository the last time it was processed: when it
+ * was last pushed to and updated, and which heads its source reported while the repository was being recognized.
+ * While a repository has not been pushed to since, a later scan of the navigator replays those heads instead of
+ * having the source list and probe every branch of the repository again. The heads are only replayed while the
+ * configuration that decided them, the navigator traits and the project factories of the owner, is unchanged. The
+ * backing file lives in the root directory of the {@link SCMSourceOwner}.
+ */
+final class RepositoryWatermarks {
+    /**
+     * Our logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(RepositoryWatermarks.class.getName());
+    /**
+     * The XStream instance used to read and write the backing file.
+     */
+    private static final XStream2 XSTREAM = new XStream2();
+    /**
+     * How long a watermark can be relied on, so that changes which do not move the watermarks (such as pull requests
+     * from forks) are eventually noticed.
+     */
+    private static final long maxAgeMillis = TimeUnit.HOURS.toMillis(Math.max(0,
+            Integer.getInteger(RepositoryWatermarks.class.getName() + ".maxAgeHours", 24)));
+    /**
+     * The recognition in progress on the current thread.
+     */
+    private static final ThreadLocal<Recognition> CURRENT = new ThreadLocal<>();
+
+    static {
+        XSTREAM.alias("repository-watermark", Entry.class);
+    }
+
+    /**
+     * The backing file or {@code null} if the navigator is not attached to an owner.
+     */
+    @CheckForNull
+    private final XmlFile file;
+    /**
+     * The digest of the configuration that decides which heads are recognized.
+     */
+    @NonNull
+    private final String configDigest;
+    /**
+     * The entries keyed by lower case repository name.
+     */
+    @NonNull
+    private final Map<String, Entry> entries = new HashMap<>();
+    /**
+     * {@code true} when the entries have changed since the backing file was last written.
+     */
+    private boolean dirty;
+
+    private RepositoryWatermarks(@CheckForNull XmlFile file, @NonNull String configDigest) {
+        this.file = file;
+        this.configDigest = configDigest;
+        if (file == null || !file.exists()) {
+            return;
+        }
+        try {
+            Object data = file.read();
+            if (data instanceof Collection) {
+                for (Object o : (Collection<?>) data) {
+                    if (o instanceof Entry) {
+                        Entry entry = (Entry) o;
+                        entries.put(entry.name.toLowerCase(Locale.ENGLISH), entry);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not load repository watermarks from " + file, e);
+        }
+    }
+
+    /**
+     * Loads the watermarks of a navigator.
+     *
+     * @param owner       the owner of the navigator or {@code null} if not known.
+     * @param navigatorId the {@link AzureDevOpsRepoSCMNavigator#getId()}.
+     * @param traits      the navigator traits.
+     * @return the watermarks.
+     */
+    @NonNull
+    static RepositoryWatermarks load(@CheckForNull SCMSourceOwner owner, @NonNull String navigatorId,
+                                     @NonNull List<? extends SCMTrait<?>> traits) {
+        return new RepositoryWatermarks(owner == null ? null : new XmlFile(XSTREAM, new File(owner.getRootDir(),
+                "azure-devops-repository-watermarks-" + Util.getDigestOf(navigatorId) + ".xml")),
+                configDigestOf(owner, traits));
+    }
+
+    /**
+     * Digests the configuration that decides which heads are recognized: the navigator traits and the project
+     * factories of the owner. Other changes to the owner, such as its description or its orphaned item strategy, do
+     * not invalidate the watermarks.
+     *
+     * @param owner  the owner of the navigator or {@code null} if not known.
+     * @param traits the navigator traits.
+     * @return the digest.
+     */
+    @NonNull
+    static String configDigestOf(@CheckForNull SCMSourceOwner owner, @NonNull List<? extends SCMTrait<?>> traits) {
+        StringBuilder config = new StringBuilder(Items.XSTREAM2.toXML(traits));
+        Object factories = projectFactoriesOf(owner);
+        if (factories != null) {
+            config.append(Items.XSTREAM2.toXML(factories));
+        }
+        return Util.getDigestOf(config.toString());
+    }
+
+    /**
+     * Gets the project factories of an owner such as an organization folder. The factories are only known to
+     * branch-api, which we do not depend on, so they are looked up by the name of the accessor.
+     *
+     * @param owner the owner of the navigator or {@code null} if not known.
+     * @return the project factories or {@code null} if the owner has none.
+     */
+    @CheckForNull
+    private static Object projectFactoriesOf(@CheckForNull SCMSourceOwner owner) {
+        if (owner == null) {
+            return null;
+        }
+        try {
+            return owner.getClass().getMethod("getProjectFactories").invoke(owner);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            // cannot tell what changed, so nothing can be replayed
+            LOGGER.log(Level.FINE, "Could not get the project factories of " + owner.getFullName(), e);
+            return System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Starts the recognition of a repository that has just been listed.
+     *
+     * @param repo     the repository.
+     * @param sourceId the id of the source that will be created for the repository.
+     * @return the recognition.
+     * @throws IOException if the watermarks of the repository could not be read.
+     */
+    @NonNull
+    synchronized Recognition recognize(@NonNull GHRepository repo, @NonNull String sourceId) throws IOException {
+        Entry current = new Entry(repo.getName(), repo.getId(), sourceId, configDigest, repo.getPushedAt(),
+                repo.getUpdatedAt());
+        Entry previous = entries.get(current.name.toLowerCase(Locale.ENGLISH));
+        boolean unchanged = previous != null
+                && previous.heads != null
+                && previous.id == current.id
+                && sourceId.equals(previous.sourceId)
+                && configDigest.equals(previous.configDigest)
+                && current.pushedAt != null && current.pushedAt.equals(previous.pushedAt)
+                && current.updatedAt != null && current.updatedAt.equals(previous.updatedAt)
+                && System.currentTimeMillis() - previous.recorded < maxAgeMillis;
+        if (unchanged) {
+            // keep the original recording time so that the entry still expires
+            current.recorded = previous.recorded;
+            current.heads = previous.heads;
+        }
+        return new Recognition(current, unchanged);
+    }
+
+    /**
+     * Discards the entries of any repository not in the supplied collection.
+     *
+     * @param names the names of the repositories to keep.
+     */
+    synchronized void retainAll(@NonNull Collection<String> names) {
+        Set<String> keep = new HashSet<>();
+        for (String name : names) {
+            keep.add(name.toLowerCase(Locale.ENGLISH));
+        }
+        if (entries.keySet().retainAll(keep)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the entries to the backing file if they have changed.
+     */
+    synchronized void save() {
+        if (!dirty || file == null) {
+            return;
+        }
+        try {
+            file.write(new HashSet<>(entries.values()));
+            dirty = false;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not save repository watermarks to " + file, e);
+        }
+    }
+
+    private synchronized void put(@NonNull Entry entry) {
+        entries.put(entry.name.toLowerCase(Locale.ENGLISH), entry);
+        dirty = true;
+    }
+
+    private synchronized void remove(@NonNull String name) {
+        if (entries.remove(name.toLowerCase(Locale.ENGLISH)) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * The recognition of a single repository by the navigator. While it is {@link #enter()}ed on a thread, the
+     * source being recognized either replays the heads from the last time or records the heads it observes.
+     */
+    final class Recognition {
+        @NonNull
+        private final Entry entry;
+        private final boolean unchanged;
+        /**
+         * How many times the source has been asked for its heads.
+         */
+        private int fetches;
+        private Map<SCMHead, SCMRevision> observed;
+
+        private Recognition(@NonNull Entry entry, boolean unchanged) {
+            this.entry = entry;
+            this.unchanged = unchanged;
+        }
+
+        /**
+         * Makes this the recognition in progress on the current thread.
+         */
+        void enter() {
+            CURRENT.set(this);
+        }
+
+        /**
+         * Ends the recognition on the current thread and updates the watermarks with the outcome.
+         *
+         * @param succeeded {@code true} if the repository was processed without error.
+         */
+        void exit(boolean succeeded) {
+            CURRENT.remove();
+            if (!succeeded) {
+                return;
+            }
+            if (unchanged && fetches <= 1) {
+                // nothing to learn, the entry is still good
+                return;
+            }
+            if (fetches == 1 && observed != null) {
+                entry.heads = new LinkedHashMap<>(observed);
+                entry.recorded = System.currentTimeMillis();
+                put(entry);
+            } else {
+                // either the source was never asked, or asked more than once with possibly different criteria,
+                // either way we cannot replay it
+                remove(entry.name);
+            }
+        }
+
+        /**
+         * Called by the source at the start of a full retrieval.
+         *
+         * @param observer the observer of the retrieval.
+         * @param listener the listener of the retrieval.
+         * @return {@code true} if the heads from the last time were replayed to the observer and the source does not
+         * need to do anything more.
+         * @throws IOException          if the observer could not observe a head.
+         * @throws InterruptedException if interrupted.
+         */
+        boolean replay(@NonNull SCMHeadObserver observer, @NonNull TaskListener listener)
+                throws IOException, InterruptedException {
+            fetches++;
+            if (!unchanged || fetches > 1 || observer.getIncludes() != null) {
+                return false;
+            }
+            listener.getLogger().format("No pushes to %s since %s, using the heads found then%n",
+                    entry.name, new Date(entry.recorded));
+            for (Map.Entry<SCMHead, SCMRevision> head : entry.heads.entrySet()) {
+                if (!observer.isObserving()) {
+                    break;
+                }
+                observer.observe(head.getKey(), head.getValue());
+            }
+            return true;
+        }
+
+        /**
+         * Called by the source at the end of a full retrieval that was not replayed.
+         *
+         * @param observed the heads that were observed.
+         */
+        void recorded(@NonNull Map<SCMHead, SCMRevision> observed) {
+            this.observed = observed;
+        }
+    }
+
+    /**
+     * Gets the recognition in progress on the current thread, if it is of the specified source.
+     *
+     * @param sourceId the id of the source.
+     * @return the recognition or {@code null}.
+     */
+    @CheckForNull
+    static Recognition current(@NonNull String sourceId) {
+        Recognition recognition = CURRENT.get();
+        return recognition != null && sourceId.equals(recognition.entry.sourceId) ? recognition : null;
+    }
+
+    /**
+     * The watermarks of a single repository.
+     */
+    private static final class Entry {
+        private final String name;
+        private final long id;
+        private final String sourceId;
+        /**
+         * The digest of the configuration that the heads were recognized with, {@code null} for entries recorded
+         * before it was tracked.
+         */
+        private final String configDigest;
+        private final Date pushedAt;
+        private final Date updatedAt;
+        private long recorded;
+        private Map<SCMHead, SCMRevision> heads;
+
+        private Entry(String name, long id, String sourceId, String configDigest, Date pushedAt, Date updatedAt) {
+            this.name = name;
+            this.id = id;
+            this.sourceId = sourceId;
+            this.configDigest = configDigest;
+            this.pushedAt = pushedAt;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
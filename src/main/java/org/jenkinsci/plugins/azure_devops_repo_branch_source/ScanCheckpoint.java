@@ -0,0 +1,310 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Util;
+import hudson.XmlFile;
+import hudson.model.TaskListener;
+import hudson.util.XStream2;
+import jenkins.scm.api.SCMFile;
+import jenkins.scm.api.SCMProbe;
+import jenkins.scm.api.SCMProbeStat;
+import jenkins.scm.api.SCMSourceOwner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the outcome of the probes of a full scan of a single {@link AzureDevOpsRepoSCMSource} so that a scan that
+ * is interrupted (rate limit, restart, network failure) does not have to repeat them. Probe results are keyed by
+ * commit hash, and as the content of a commit never changes they can be replayed by any later scan regardless of
+ * how the refs have moved in the meantime. The backing file lives in the root directory of the
+ * {@link SCMSourceOwner} and is removed once a scan completes.
+ */
+final class ScanCheckpoint {
+    /**
+     * Our logger.
+     */
+    private static final Logger LOGGER = Logger.getLogger(ScanCheckpoint.class.getName());
+    /**
+     * The XStream instance used to read and write the backing file.
+     */
+    static final XStream2 XSTREAM = new XStream2();
+    /**
+     * How often to write the checkpoint while a scan is in progress.
+     */
+    private static final long SAVE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(
+            Integer.getInteger(ScanCheckpoint.class.getName() + ".saveIntervalSeconds", 30));
+
+    static {
+        XSTREAM.alias("scan-checkpoint", Data.class);
+        XSTREAM.alias("commit", Entry.class);
+    }
+
+    /**
+     * The backing file or {@code null} if the source is not attached to an owner.
+     */
+    @CheckForNull
+    private final XmlFile file;
+    /**
+     * The probe results keyed by commit hash.
+     */
+    @NonNull
+    private final Map<String, Entry> entries = new HashMap<>();
+    /**
+     * The number of entries replayed from an earlier scan.
+     */
+    private final int resumed;
+    /**
+     * {@code true} when the entries have changed since the backing file was last written.
+     */
+    private boolean dirty;
+    /**
+     * When the backing file was last written.
+     */
+    private long lastSaved = System.nanoTime();
+
+    ScanCheckpoint(@CheckForNull XmlFile file) {
+        this.file = file;
+        Data data = null;
+        if (file != null && file.exists()) {
+            try {
+                Object o = file.read();
+                if (o instanceof Data) {
+                    data = (Data) o;
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not load scan checkpoint from " + file, e);
+            }
+        }
+        if (data != null && data.entries != null) {
+            entries.putAll(data.entries);
+        }
+        this.resumed = entries.size();
+    }
+
+    /**
+     * Opens the checkpoint of the supplied source, reporting to the listener if there is an earlier scan to resume.
+     *
+     * @param source   the source.
+     * @param listener the listener of the scan.
+     * @return the checkpoint.
+     */
+    @NonNull
+    static ScanCheckpoint open(@NonNull AzureDevOpsRepoSCMSource source, @NonNull TaskListener listener) {
+        SCMSourceOwner owner = source.getOwner();
+        ScanCheckpoint checkpoint = new ScanCheckpoint(owner == null ? null : new XmlFile(XSTREAM,
+                new File(owner.getRootDir(),
+                        "azure-devops-scan-checkpoint-" + Util.getDigestOf(source.getId()) + ".xml")));
+        if (checkpoint.resumed > 0) {
+            listener.getLogger().format("  Resuming an incomplete scan, %d commits already checked%n",
+                    checkpoint.resumed);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Wraps a probe of the specified commit so that its answers are replayed from, or recorded into, this
+     * checkpoint.
+     *
+     * @param hash     the commit hash that the probe examines.
+     * @param delegate the probe that will query GitHub.
+     * @return the wrapped probe.
+     */
+    @NonNull
+    SCMProbe probe(@NonNull String hash, @NonNull SCMProbe delegate) {
+        return new CheckpointedProbe(this, hash, delegate);
+    }
+
+    @CheckForNull
+    synchronized Long lastModified(@NonNull String hash) {
+        Entry entry = entries.get(hash);
+        return entry == null ? null : entry.lastModified;
+    }
+
+    synchronized void lastModified(@NonNull String hash, long lastModified) {
+        entry(hash).lastModified = lastModified;
+        changed();
+    }
+
+    @CheckForNull
+    synchronized SCMProbeStat stat(@NonNull String hash, @NonNull String path) {
+        Entry entry = entries.get(hash);
+        Stat stat = entry == null || entry.stats == null ? null : entry.stats.get(path);
+        if (stat == null) {
+            return null;
+        }
+        return stat.alternativePath != null
+                ? SCMProbeStat.fromAlternativePath(stat.alternativePath)
+                : SCMProbeStat.fromType(stat.type);
+    }
+
+    synchronized void stat(@NonNull String hash, @NonNull String path, @NonNull SCMProbeStat stat) {
+        Entry entry = entry(hash);
+        if (entry.stats == null) {
+            entry.stats = new HashMap<>();
+        }
+        entry.stats.put(path, new Stat(stat.getType(), stat.getAlternativePath()));
+        changed();
+    }
+
+    /**
+     * Writes the checkpoint if it has changed, call this when a scan fails.
+     */
+    synchronized void save() {
+        if (!dirty || file == null) {
+            return;
+        }
+        Data data = new Data();
+        data.entries = new HashMap<>(entries);
+        try {
+            file.write(data);
+            dirty = false;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not save scan checkpoint to " + file, e);
+        }
+        lastSaved = System.nanoTime();
+    }
+
+    /**
+     * Discards the checkpoint, call this when a scan completes.
+     */
+    synchronized void complete() {
+        entries.clear();
+        dirty = false;
+        if (file != null && file.exists()) {
+            file.delete();
+        }
+    }
+
+    @NonNull
+    private Entry entry(@NonNull String hash) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(hash, entry);
+        }
+        return entry;
+    }
+
+    private void changed() {
+        dirty = true;
+        if (System.nanoTime() - lastSaved > SAVE_INTERVAL_NANOS) {
+            save();
+        }
+    }
+
+    /**
+     * The persisted form of the checkpoint.
+     */
+    private static final class Data {
+        private Map<String, Entry> entries;
+    }
+
+    /**
+     * The probe results of a single commit.
+     */
+    private static final class Entry {
+        private Long lastModified;
+        private Map<String, Stat> stats;
+    }
+
+    /**
+     * The persisted form of a {@link SCMProbeStat}.
+     */
+    private static final class Stat {
+        private final SCMFile.Type type;
+        private final String alternativePath;
+
+        private Stat(SCMFile.Type type, String alternativePath) {
+            this.type = type;
+            this.alternativePath = alternativePath;
+        }
+    }
+
+    /**
+     * A {@link SCMProbe} that consults the checkpoint before its delegate.
+     */
+    @SuppressFBWarnings("SE_BAD_FIELD")
+    private static final class CheckpointedProbe extends SCMProbe {
+        private static final long serialVersionUID = 1L;
+        private final ScanCheckpoint checkpoint;
+        private final String hash;
+        private final SCMProbe delegate;
+
+        private CheckpointedProbe(ScanCheckpoint checkpoint, String hash, SCMProbe delegate) {
+            this.checkpoint = checkpoint;
+            this.hash = hash;
+            this.delegate = delegate;
+        }
+
+        @NonNull
+        @Override
+        public String name() {
+            return delegate.name();
+        }
+
+        @Override
+        public long lastModified() {
+            Long lastModified = checkpoint.lastModified(hash);
+            if (lastModified == null) {
+                lastModified = delegate.lastModified();
+                if (lastModified != 0L) {
+                    // zero means the lookup failed, so try again next time
+                    checkpoint.lastModified(hash, lastModified);
+                }
+            }
+            return lastModified;
+        }
+
+        @NonNull
+        @Override
+        public SCMProbeStat stat(@NonNull String path) throws IOException {
+            SCMProbeStat stat = checkpoint.stat(hash, path);
+            if (stat == null) {
+                stat = delegate.stat(path);
+                checkpoint.stat(hash, path, stat);
+            }
+            return stat;
+        }
+
+        @Override
+        public SCMFile getRoot() {
+            return delegate.getRoot();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.console.HyperlinkNote;
+import hudson.model.TaskListener;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the per-head lines of a scan. By default every head is logged as it is checked. In compact mode only the
+ * heads that did not meet the criteria, that have something noteworthy to report or that could not be checked are
+ * logged, and each section ends with a count of the outcomes. Either way the lines of a head are written in one go
+ * through a buffer rather than a separate formatted write for each line.
+ */
+final class ScanLog {
+    /**
+     * The buffered writer.
+     */
+    @NonNull
+    private final PrintWriter out;
+    /**
+     * {@code true} to only log the heads that need attention.
+     */
+    private final boolean compact;
+    /**
+     * The kind of the head being checked or {@code null} if none.
+     */
+    @CheckForNull
+    private String kind;
+    /**
+     * The URL of the head being checked.
+     */
+    @CheckForNull
+    private String url;
+    /**
+     * The display name of the head being checked.
+     */
+    @CheckForNull
+    private String name;
+    /**
+     * The lines reported about the head being checked that have not been written yet.
+     */
+    @NonNull
+    private final List<String> details = new ArrayList<>();
+    /**
+     * {@code true} if the head being checked should be logged in compact mode even if it meets the criteria.
+     */
+    private boolean noteworthy;
+    private int matched;
+    private int unmatched;
+    private int skipped;
+
+    ScanLog(@NonNull TaskListener listener, boolean compact) {
+        this.out = new PrintWriter(new BufferedWriter(
+                // same encoding as the logger would use when formatting directly
+                new OutputStreamWriter(listener.getLogger(), Charset.defaultCharset())), false);
+        this.compact = compact;
+    }
+
+    /**
+     * Starts checking a head.
+     *
+     * @param kind the kind of head, e.g. {@code branch}.
+     * @param url  the URL of the head.
+     * @param name the display name of the head.
+     */
+    void head(@NonNull String kind, @NonNull String url, @NonNull String name) {
+        this.kind = kind;
+        this.url = url;
+        this.name = name;
+        this.details.clear();
+        this.noteworthy = false;
+        if (!compact) {
+            writeHead();
+            // anything the checks log directly should come after the head
+            out.flush();
+        }
+    }
+
+    /**
+     * Reports something about the head being checked.
+     *
+     * @param line the line, without indentation.
+     * @param noteworthy {@code true} if the line should be logged in compact mode even if the head meets the
+     *                   criteria.
+     */
+    void detail(@NonNull String line, boolean noteworthy) {
+        if (!compact) {
+            out.println(line);
+        } else if (kind != null) {
+            details.add(line);
+            this.noteworthy = this.noteworthy || noteworthy;
+        }
+    }
+
+    /**
+     * Records that the head being checked will not be processed.
+     *
+     * @param reason the reason.
+     */
+    void skipped(@NonNull String reason) {
+        skipped++;
+        if (!compact) {
+            out.println(reason);
+            out.println();
+        }
+        clear();
+    }
+
+    /**
+     * Records whether the head being checked met the criteria.
+     *
+     * @param isMatch {@code true} if the head met the criteria.
+     */
+    void outcome(boolean isMatch) {
+        if (isMatch) {
+            matched++;
+        } else {
+            unmatched++;
+        }
+        if (!compact) {
+            out.println(isMatch ? "    Met criteria" : "    Does not meet criteria");
+            return;
+        }
+        if (noteworthy || !isMatch) {
+            writeHeadAndDetails();
+            out.println(isMatch ? "    Met criteria" : "    Does not meet criteria");
+        }
+        details.clear();
+        noteworthy = false;
+    }
+
+    /**
+     * Completes checking the head, which is either processed or excluded by the filters at this point.
+     */
+    void done() {
+        clear();
+        out.flush();
+    }
+
+    /**
+     * Writes the section summary.
+     *
+     * @param format the format of the summary line, taking the number of heads processed.
+     * @param count  the number of heads processed.
+     */
+    void summary(@NonNull String format, int count) {
+        out.format(format, count);
+        if (compact) {
+            out.format("  (%d met criteria, %d did not meet criteria, %d skipped)%n", matched, unmatched, skipped);
+        }
+        matched = 0;
+        unmatched = 0;
+        skipped = 0;
+        out.flush();
+    }
+
+    /**
+     * Writes anything still pending. A head still being checked at this point could not be checked, so it is logged
+     * even in compact mode.
+     */
+    void flush() {
+        if (compact && kind != null) {
+            writeHeadAndDetails();
+            out.println("    Could not be checked");
+        }
+        clear();
+        out.flush();
+    }
+
+    private void writeHead() {
+        out.println();
+        out.format("    Checking %s %s%n", kind, HyperlinkNote.encodeTo(url, name));
+    }
+
+    private void writeHeadAndDetails() {
+        writeHead();
+        for (String detail : details) {
+            out.println(detail);
+        }
+    }
+
+    private void clear() {
+        kind = null;
+        url = null;
+        name = null;
+        details.clear();
+        noteworthy = false;
+    }
+}
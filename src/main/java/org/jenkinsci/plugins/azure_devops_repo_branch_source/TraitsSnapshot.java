@@ -0,0 +1,233 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import jenkins.scm.api.SCMHeadObserver;
+import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
+import jenkins.scm.api.trait.SCMHeadAuthority;
+import jenkins.scm.api.trait.SCMHeadFilter;
+import jenkins.scm.api.trait.SCMHeadPrefilter;
+import jenkins.scm.api.trait.SCMSourceTrait;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of what the traits of an {@link AzureDevOpsRepoSCMSource} contribute to an
+ * {@link AzureDevOpsRepoSCMSourceContext}, for the many places that only need to read the outcome rather than make a
+ * request. Building a context walks every trait, which adds up when each event or build notification does so.
+ */
+final class TraitsSnapshot {
+    /**
+     * The traits the snapshot was compiled from.
+     */
+    @NonNull
+    private final List<SCMSourceTrait> traits;
+    private final boolean wantBranches;
+    private final boolean wantTags;
+    private final boolean wantOriginPRs;
+    private final boolean wantForkPRs;
+    @NonNull
+    private final Set<ChangeRequestCheckoutStrategy> originPRStrategies;
+    @NonNull
+    private final Set<ChangeRequestCheckoutStrategy> forkPRStrategies;
+    @NonNull
+    private final List<SCMHeadPrefilter> prefilters;
+    @NonNull
+    private final List<SCMHeadFilter> filters;
+    @NonNull
+    private final List<SCMHeadAuthority> authorities;
+    @NonNull
+    private final List<AbstractGitHubNotificationStrategy> notificationStrategies;
+    private final boolean notificationsDisabled;
+    private final boolean compactScanLog;
+    @CheckForNull
+    private final HeadNameScope headNameScope;
+
+    private TraitsSnapshot(@NonNull List<SCMSourceTrait> traits, @NonNull AzureDevOpsRepoSCMSourceContext context) {
+        this.traits = traits;
+        this.wantBranches = context.wantBranches();
+        this.wantTags = context.wantTags();
+        this.wantOriginPRs = context.wantOriginPRs();
+        this.wantForkPRs = context.wantForkPRs();
+        this.originPRStrategies = Collections.unmodifiableSet(copyOf(context.originPRStrategies()));
+        this.forkPRStrategies = Collections.unmodifiableSet(copyOf(context.forkPRStrategies()));
+        this.prefilters = Collections.unmodifiableList(new ArrayList<>(context.prefilters()));
+        this.filters = Collections.unmodifiableList(new ArrayList<>(context.filters()));
+        this.authorities = Collections.unmodifiableList(new ArrayList<>(context.authorities()));
+        this.notificationStrategies = Collections.unmodifiableList(new ArrayList<>(context.notificationStrategies()));
+        this.notificationsDisabled = context.notificationsDisabled();
+        this.compactScanLog = context.compactScanLog();
+        this.headNameScope = HeadNameScope.of(traits);
+    }
+
+    /**
+     * Compiles the supplied traits.
+     *
+     * @param traits the traits.
+     * @return the snapshot.
+     */
+    @NonNull
+    static TraitsSnapshot of(@NonNull List<SCMSourceTrait> traits) {
+        List<SCMSourceTrait> copy = new ArrayList<>(traits);
+        return new TraitsSnapshot(copy,
+                new AzureDevOpsRepoSCMSourceContext(null, SCMHeadObserver.none()).withTraits(copy));
+    }
+
+    /**
+     * Checks if this snapshot was compiled from exactly the supplied traits, which catches the legacy setters that
+     * modify the list of traits in place.
+     *
+     * @param traits the traits.
+     * @return {@code true} if the snapshot is still current.
+     */
+    boolean isFor(@NonNull List<SCMSourceTrait> traits) {
+        if (this.traits.size() != traits.size()) {
+            return false;
+        }
+        for (int i = 0; i < traits.size(); i++) {
+            if (this.traits.get(i) != traits.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#wantBranches()
+     */
+    boolean wantBranches() {
+        return wantBranches;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#wantTags()
+     */
+    boolean wantTags() {
+        return wantTags;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#wantPRs()
+     */
+    boolean wantPRs() {
+        return wantOriginPRs || wantForkPRs;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#wantOriginPRs()
+     */
+    boolean wantOriginPRs() {
+        return wantOriginPRs;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#wantForkPRs()
+     */
+    boolean wantForkPRs() {
+        return wantForkPRs;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#originPRStrategies()
+     */
+    @NonNull
+    Set<ChangeRequestCheckoutStrategy> originPRStrategies() {
+        return originPRStrategies;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#forkPRStrategies()
+     */
+    @NonNull
+    Set<ChangeRequestCheckoutStrategy> forkPRStrategies() {
+        return forkPRStrategies;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#prefilters()
+     */
+    @NonNull
+    List<SCMHeadPrefilter> prefilters() {
+        return prefilters;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#filters()
+     */
+    @NonNull
+    List<SCMHeadFilter> filters() {
+        return filters;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#authorities()
+     */
+    @NonNull
+    List<SCMHeadAuthority> authorities() {
+        return authorities;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#notificationStrategies()
+     */
+    @NonNull
+    List<AbstractGitHubNotificationStrategy> notificationStrategies() {
+        return notificationStrategies;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#notificationsDisabled()
+     */
+    boolean notificationsDisabled() {
+        return notificationsDisabled;
+    }
+
+    /**
+     * @see AzureDevOpsRepoSCMSourceContext#compactScanLog()
+     */
+    boolean compactScanLog() {
+        return compactScanLog;
+    }
+
+    /**
+     * @see HeadNameScope#of(java.util.Collection)
+     */
+    @CheckForNull
+    HeadNameScope headNameScope() {
+        return headNameScope;
+    }
+
+    @NonNull
+    private static Set<ChangeRequestCheckoutStrategy> copyOf(@NonNull Set<ChangeRequestCheckoutStrategy> strategies) {
+        return strategies.isEmpty()
+                ? EnumSet.noneOf(ChangeRequestCheckoutStrategy.class)
+                : EnumSet.copyOf(strategies);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2019, CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.cloudbees.jenkins.GitHubRepositoryName;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Action;
+import hudson.model.CauseAction;
+import hudson.model.Executor;
+import hudson.model.queue.WorkUnit;
+import hudson.triggers.TimerTrigger;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks when webhooks were last delivered for each repository. While a repository's webhooks are being delivered
+ * the events keep its heads up to date, so the periodic full scans that act as a safety net can be stretched out.
+ * Repositories whose webhooks appear stale (or were never seen) keep getting the full scans.
+ */
+final class WebhookHealth {
+    /**
+     * How recently a webhook must have been delivered for a repository to be considered healthy.
+     */
+    private static final long healthyMillis = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(WebhookHealth.class.getName() + ".healthyMinutes", 60)));
+    /**
+     * How long the periodic scans of a healthy repository can be stretched for, zero to always scan.
+     */
+    private static final long maxSkipMillis = TimeUnit.MINUTES.toMillis(Math.max(0,
+            Integer.getInteger(WebhookHealth.class.getName() + ".maxSkipMinutes", 240)));
+    /**
+     * When a webhook was last delivered keyed by {@link #key(String, String, String)}.
+     */
+    private static final ConcurrentMap<String, Long> deliveries = new ConcurrentHashMap<>();
+
+    private WebhookHealth() {
+        throw new IllegalAccessError("Utility class");
+    }
+
+    /**
+     * Records the delivery of a webhook.
+     *
+     * @param repository the repository that the webhook was for.
+     */
+    static void delivered(@NonNull GitHubRepositoryName repository) {
+        deliveries.put(key(repository.getHost(), repository.getUserName(), repository.getRepositoryName()),
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Checks whether a periodic scan of a repository can be skipped.
+     *
+     * @param apiUri        the API endpoint.
+     * @param owner         the repository owner.
+     * @param repository    the repository name.
+     * @param lastFullScan  when the last full scan of the repository completed.
+     * @return {@code true} if the webhooks of the repository are healthy and the last full scan is recent enough.
+     */
+    static boolean canSkipScan(@CheckForNull String apiUri, @NonNull String owner, @NonNull String repository,
+                               long lastFullScan) {
+        long now = System.currentTimeMillis();
+        if (now - lastFullScan >= maxSkipMillis) {
+            return false;
+        }
+        Long delivered = deliveries.get(key(RepositoryUriResolver.hostnameFromApiUri(apiUri), owner, repository));
+        return delivered != null && now - delivered < healthyMillis;
+    }
+
+    /**
+     * Checks whether the current thread is running a scan that was triggered by a timer, as opposed to a scan that
+     * a user asked for or that was caused by a configuration change.
+     *
+     * @return {@code true} if the current scan is a periodic one.
+     */
+    static boolean isPeriodicScan() {
+        Executor executor = Executor.currentExecutor();
+        WorkUnit workUnit = executor == null ? null : executor.getCurrentWorkUnit();
+        if (workUnit == null) {
+            return false;
+        }
+        for (Action action : workUnit.context.actions) {
+            if (action instanceof CauseAction
+                    && ((CauseAction) action).findCause(TimerTrigger.TimerTriggerCause.class) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NonNull
+    private static String key(@CheckForNull String host, @NonNull String owner, @NonNull String repository) {
+        return (host == null ? "" : host.toLowerCase(Locale.ENGLISH))
+                + "/" + owner.toLowerCase(Locale.ENGLISH)
+                + "/" + repository.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,37 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class AvatarCacheTest {
+    @ClassRule
+    public static JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void pathOfStandardSizes() {
+        String path = AvatarCache.pathOf("https://avatars.githubusercontent.com/u/4181899?v=3", "32x32");
+        assertThat(path, startsWith("/" + AvatarCache.URL_NAME + "/"));
+        assertThat(path, endsWith("/32.png"));
+        assertThat(AvatarCache.pathOf("https://avatars.githubusercontent.com/u/4181899?v=3", "16x16"),
+                is(path.replace("/32.png", "/16.png")));
+        assertThat(AvatarCache.pathOf("https://avatars.githubusercontent.com/u/4181899?v=3", "100x100"),
+                nullValue());
+    }
+
+    @Test
+    public void unknownAvatarsAreNotServed() throws Exception {
+        JenkinsRule.WebClient wc = j.createWebClient();
+        try {
+            wc.goTo(AvatarCache.URL_NAME + "/0123456789abcdef0123456789abcdef/32.png", "image/png");
+            fail("unregistered avatars must not be served");
+        } catch (FailingHttpStatusCodeException e) {
+            assertThat(e.getStatusCode(), is(404));
+        }
+    }
+}
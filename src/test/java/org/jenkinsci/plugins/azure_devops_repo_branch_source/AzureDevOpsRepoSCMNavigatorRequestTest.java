@@ -0,0 +1,65 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import jenkins.scm.api.SCMNavigator;
+import jenkins.scm.api.SCMSourceObserver;
+import org.junit.Test;
+import org.kohsuke.github.GHRepository;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.util.Date;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AzureDevOpsRepoSCMNavigatorRequestTest {
+
+    @Test
+    public void nothingExcludedByDefault() throws Exception {
+        AzureDevOpsRepoSCMNavigatorRequest request = newRequest(new AzureDevOpsRepoSCMNavigatorContext());
+        assertThat(request.isExcluded(repository(true, 0)), is(false));
+    }
+
+    @Test
+    public void excludeArchivedRepositories() throws Exception {
+        AzureDevOpsRepoSCMNavigatorContext context = new AzureDevOpsRepoSCMNavigatorContext();
+        new ExcludeArchivedRepositoriesTrait().applyToContext(context);
+        assertThat(context.isExcludeArchivedRepositories(), is(true));
+        assertThat(context.isExcludeEmptyRepositories(), is(false));
+        AzureDevOpsRepoSCMNavigatorRequest request = newRequest(context);
+        assertThat(request.isExcluded(repository(true, 42)), is(true));
+        assertThat(request.isExcluded(repository(false, 42)), is(false));
+        assertThat(request.isExcluded(repository(false, 0)), is(false));
+    }
+
+    @Test
+    public void excludeEmptyRepositories() throws Exception {
+        AzureDevOpsRepoSCMNavigatorContext context = new AzureDevOpsRepoSCMNavigatorContext();
+        new ExcludeEmptyRepositoriesTrait().applyToContext(context);
+        assertThat(context.isExcludeArchivedRepositories(), is(false));
+        assertThat(context.isExcludeEmptyRepositories(), is(true));
+        AzureDevOpsRepoSCMNavigatorRequest request = newRequest(context);
+        assertThat(request.isExcluded(repository(false, 0)), is(true));
+        assertThat(request.isExcluded(repository(false, 42)), is(false));
+        assertThat(request.isExcluded(repository(true, 42)), is(false));
+        // pushed to, but GitHub has not worked out the size yet
+        assertThat(request.isExcluded(repository(false, 0, true)), is(false));
+    }
+
+    static AzureDevOpsRepoSCMNavigatorRequest newRequest(AzureDevOpsRepoSCMNavigatorContext context) {
+        return context.newRequest(Mockito.mock(SCMNavigator.class), Mockito.mock(SCMSourceObserver.class));
+    }
+
+    private static GHRepository repository(boolean archived, int size) throws IOException {
+        return repository(archived, size, size > 0);
+    }
+
+    private static GHRepository repository(boolean archived, int size, boolean pushed) throws IOException {
+        GHRepository repository = Mockito.mock(GHRepository.class);
+        Mockito.when(repository.isArchived()).thenReturn(archived);
+        Mockito.when(repository.getSize()).thenReturn(size);
+        Mockito.when(repository.getCreatedAt()).thenReturn(new Date(1000L));
+        Mockito.when(repository.getPushedAt()).thenReturn(new Date(pushed ? 2000L : 1000L));
+        return repository;
+    }
+}
@@ -45,7 +45,9 @@ import hudson.util.ListBoxModel;
 import hudson.util.LogTaskListener;
 import jenkins.branch.BranchSource;
 import jenkins.model.Jenkins;
+import jenkins.plugins.git.AbstractGitSCMSource;
 import jenkins.plugins.git.GitSCMSource;
+import jenkins.plugins.git.GitTagSCMRevision;
 import jenkins.scm.api.*;
 import jenkins.scm.api.metadata.ObjectMetadataAction;
 import jenkins.scm.api.mixin.ChangeRequestCheckoutStrategy;
@@ -249,6 +251,80 @@ public class AzureDevOpsRepoSCMSourceTest {
                 ));
     }
 
+    @Test
+    public void resolvePullRequestByName() throws Exception {
+        stubMissingRefs();
+        stubRefs("pull/2", "["
+                + ref("refs/pull/2/head", "c0e024f89969b976da165eecaa71e09dc60c3da1", "commit") + ","
+                + ref("refs/pull/2/merge", "38814ca33833ff5583624c29f305be9133f27a40", "commit") + "]");
+        SCMRevision revision = source.fetch("PR-2", new LogTaskListener(Logger.getAnonymousLogger(), Level.INFO));
+        assertThat(revision, instanceOf(PullRequestSCMRevision.class));
+        assertThat(((PullRequestSCMRevision) revision).getPullHash(), is("c0e024f89969b976da165eecaa71e09dc60c3da1"));
+        assertThat(((PullRequestSCMRevision) revision).getBaseHash(), is("8f1314fc3c8284d8c6d5886d473db98f2126071c"));
+    }
+
+    @Test
+    public void resolveBranchByName() throws Exception {
+        stubMissingRefs();
+        SCMRevision revision = source.fetch("master", new LogTaskListener(Logger.getAnonymousLogger(), Level.INFO));
+        assertThat(revision, instanceOf(AbstractGitSCMSource.SCMRevisionImpl.class));
+        assertThat(revision.getHead(), instanceOf(BranchSCMHead.class));
+        assertThat(((AbstractGitSCMSource.SCMRevisionImpl) revision).getHash(),
+                is("8f1314fc3c8284d8c6d5886d473db98f2126071c"));
+    }
+
+    @Test
+    public void resolveTagByName() throws Exception {
+        stubMissingRefs();
+        stubRefs("tags/v1.0", ref("refs/tags/v1.0", "8f1314fc3c8284d8c6d5886d473db98f2126071c", "commit"));
+        SCMRevision revision = source.fetch("v1.0", new LogTaskListener(Logger.getAnonymousLogger(), Level.INFO));
+        assertThat(revision, instanceOf(GitTagSCMRevision.class));
+        assertThat(revision.getHead(), instanceOf(AzureDevOpsRepoTagSCMHead.class));
+        assertThat(((GitTagSCMRevision) revision).getHash(), is("8f1314fc3c8284d8c6d5886d473db98f2126071c"));
+    }
+
+    @Test
+    public void resolveNameThatOnlyPrefixesOtherBranches() throws Exception {
+        stubMissingRefs();
+        // without an exact match GitHub lists the refs that start with the name
+        stubRefs("heads/release", "["
+                + ref("refs/heads/release/1.0", "095e69602bb95a278505e937e41d505ac3cdd263", "commit") + "]");
+        stubRefs("tags/release", ref("refs/tags/release", "8f1314fc3c8284d8c6d5886d473db98f2126071c", "commit"));
+        SCMRevision revision = source.fetch("release", new LogTaskListener(Logger.getAnonymousLogger(), Level.INFO));
+        assertThat(revision, instanceOf(GitTagSCMRevision.class));
+        assertThat(((GitTagSCMRevision) revision).getHash(), is("8f1314fc3c8284d8c6d5886d473db98f2126071c"));
+    }
+
+    @Test
+    public void resolveMissingName() throws Exception {
+        stubMissingRefs();
+        stubRefs("heads/release", "["
+                + ref("refs/heads/release/1.0", "095e69602bb95a278505e937e41d505ac3cdd263", "commit") + "]");
+        assertThat(source.fetch("release", new LogTaskListener(Logger.getAnonymousLogger(), Level.INFO)),
+                nullValue());
+        assertThat(source.fetch("does-not-exist", new LogTaskListener(Logger.getAnonymousLogger(), Level.INFO)),
+                nullValue());
+    }
+
+    private void stubMissingRefs() {
+        // refs and commits that were not recorded or stubbed do not exist
+        githubApi.stubFor(get(urlMatching("/repos/cloudbeers/yolo/(git/refs|commits)/.*")).atPriority(6)
+                .willReturn(aResponse().withStatus(404)
+                        .withHeader("Content-Type", "application/json; charset=utf-8")
+                        .withBody("{\"message\":\"Not Found\"}")));
+    }
+
+    private void stubRefs(String refName, String body) {
+        githubApi.stubFor(get(urlPathEqualTo("/repos/cloudbeers/yolo/git/refs/" + refName)).atPriority(1)
+                .willReturn(aResponse()
+                        .withHeader("Content-Type", "application/json; charset=utf-8")
+                        .withBody(body)));
+    }
+
+    private static String ref(String name, String sha, String type) {
+        return "{\"ref\":\"" + name + "\",\"object\":{\"sha\":\"" + sha + "\",\"type\":\"" + type + "\"}}";
+    }
+
     @Test
     public void fetchActions() throws Exception {
         assertThat(source.fetchActions(null, null), Matchers.<Action>containsInAnyOrder(
@@ -337,4 +413,13 @@ public class AzureDevOpsRepoSCMSourceTest {
         }
     }
 
+    @Test
+    public void collaboratorNamesAreShared() {
+        Set<String> first = AzureDevOpsRepoSCMSource.internCollaboratorNames(
+                Arrays.asList(new String("alice"), new String("bob")));
+        Set<String> second = AzureDevOpsRepoSCMSource.internCollaboratorNames(
+                Arrays.asList(new String("bob"), new String("alice")));
+        assertThat(second, sameInstance(first));
+        assertThat(first, containsInAnyOrder("alice", "bob"));
+    }
 }
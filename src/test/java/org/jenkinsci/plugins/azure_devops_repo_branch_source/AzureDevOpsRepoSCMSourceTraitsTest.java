@@ -1983,4 +1983,21 @@ public class AzureDevOpsRepoSCMSourceTraitsTest {
                 )
         );
     }
+
+    @Test
+    public void given__traitsSnapshot__when__traitsChanged__then__snapshotRecompiled() throws Exception {
+        AzureDevOpsRepoSCMSource instance = new AzureDevOpsRepoSCMSource("repo-owner", "repo");
+        instance.setTraits(new AzureDevOpsRepoSCMSource.DescriptorImpl().getTraitsDefaults());
+        TraitsSnapshot snapshot = instance.getTraitsSnapshot();
+        assertThat(snapshot.wantBranches(), is(true));
+        assertThat(snapshot.forkPRStrategies(), contains(ChangeRequestCheckoutStrategy.MERGE));
+        assertThat(instance.getTraitsSnapshot(), sameInstance(snapshot));
+        // legacy setters modify the traits in place
+        instance.setBuildForkPRHead(true);
+        assertThat(instance.getTraitsSnapshot().forkPRStrategies(),
+                containsInAnyOrder(ChangeRequestCheckoutStrategy.MERGE, ChangeRequestCheckoutStrategy.HEAD));
+        instance.setTraits(Collections.<SCMSourceTrait>emptyList());
+        assertThat(instance.getTraitsSnapshot().wantBranches(), is(false));
+        assertThat(instance.getTraitsSnapshot().wantPRs(), is(false));
+    }
 }
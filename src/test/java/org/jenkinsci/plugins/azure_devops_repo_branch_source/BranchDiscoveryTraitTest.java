@@ -9,9 +9,11 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 import static org.hamcrest.Matchers.*;
+import static org.jenkinsci.plugins.azure_devops_repo_branch_source.PullRequestFixtures.pullRequest;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assume.assumeThat;
 
@@ -93,4 +95,13 @@ public class BranchDiscoveryTraitTest {
         assertThat(options.get(2).value, is("3"));
     }
 
+    @Test
+    public void given__pullRequests__when__indexed__then__onlyOriginHeadsIncluded() throws Exception {
+        assertThat(AzureDevOpsRepoSCMSourceRequest.indexOriginPullRequestHeads(Arrays.asList(
+                pullRequest(1, "cloudbeers/yolo", "cloudbeers/yolo", "feature-1"),
+                pullRequest(2, "cloudbeers/yolo", "stephenc/yolo", "feature-2"),
+                pullRequest(3, "cloudbeers/yolo", null, "feature-3"),
+                pullRequest(4, "cloudbeers/yolo", "CloudBeers/Yolo", "feature-4")
+        )), containsInAnyOrder("feature-1", "feature-4"));
+    }
 }
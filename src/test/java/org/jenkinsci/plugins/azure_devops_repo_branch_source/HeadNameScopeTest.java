@@ -0,0 +1,70 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import java.util.Arrays;
+import java.util.Collections;
+import jenkins.scm.api.trait.SCMSourceTrait;
+import jenkins.scm.impl.trait.RegexSCMHeadFilterTrait;
+import jenkins.scm.impl.trait.WildcardSCMHeadFilterTrait;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class HeadNameScopeTest {
+
+    @Test
+    public void wildcardPrefixes() {
+        HeadNameScope scope = HeadNameScope.ofWildcards("release/* release/1.x/* hotfix/2.*");
+        assertThat(scope, notNullValue());
+        assertThat(scope.getPrefixes(), contains("hotfix/", "release/"));
+        assertThat(scope.getNames(), empty());
+        assertThat(scope.contains("release/1.0"), is(true));
+        assertThat(scope.contains("master"), is(false));
+    }
+
+    @Test
+    public void wildcardNamesAndPrefixes() {
+        HeadNameScope scope = HeadNameScope.ofWildcards("master release/*");
+        assertThat(scope, notNullValue());
+        assertThat(scope.getPrefixes(), contains("release/"));
+        assertThat(scope.getNames(), contains("master"));
+        assertThat(scope.getSingleName(), nullValue());
+    }
+
+    @Test
+    public void wildcardWithoutSegmentPrefixIsUnrestricted() {
+        assertThat(HeadNameScope.ofWildcards("*"), nullValue());
+        assertThat(HeadNameScope.ofWildcards("release/* feature-*"), nullValue());
+        assertThat(HeadNameScope.ofWildcards(""), nullValue());
+    }
+
+    @Test
+    public void singleWildcardName() {
+        HeadNameScope scope = HeadNameScope.ofWildcards("develop");
+        assertThat(scope, notNullValue());
+        assertThat(scope.getSingleName(), is("develop"));
+    }
+
+    @Test
+    public void regexPrefixes() {
+        assertThat(HeadNameScope.ofRegex("release/.*").getPrefixes(), contains("release/"));
+        assertThat(HeadNameScope.ofRegex("^release/v[0-9]+").getPrefixes(), contains("release/"));
+        assertThat(HeadNameScope.ofRegex("releases?/.*"), nullValue());
+        assertThat(HeadNameScope.ofRegex("release/.*|master"), nullValue());
+        assertThat(HeadNameScope.ofRegex(".*"), nullValue());
+        assertThat(HeadNameScope.ofRegex("^master$").getSingleName(), is("master"));
+    }
+
+    @Test
+    public void derivedFromTraits() {
+        assertThat(HeadNameScope.of(Collections.<SCMSourceTrait>emptyList()), nullValue());
+        assertThat(HeadNameScope.of(Arrays.<SCMSourceTrait>asList(
+                new BranchDiscoveryTrait(true, true),
+                new WildcardSCMHeadFilterTrait("release/*", "")
+        )).getPrefixes(), contains("release/"));
+        assertThat(HeadNameScope.of(Arrays.<SCMSourceTrait>asList(
+                new RegexSCMHeadFilterTrait(".*"),
+                new WildcardSCMHeadFilterTrait("release/*", "")
+        )).getPrefixes(), contains("release/"));
+    }
+}
@@ -0,0 +1,69 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import org.junit.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class IntObjectMapTest {
+
+    @Test
+    public void putAndGet() {
+        IntObjectMap<String> instance = new IntObjectMap<>();
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.put(42, "a"), nullValue());
+        assertThat(instance.put(7, "b"), nullValue());
+        assertThat(instance.put(1000, "c"), nullValue());
+        assertThat(instance.put(42, "d"), is("a"));
+        assertThat(instance.size(), is(3));
+        assertThat(instance.get(7), is("b"));
+        assertThat(instance.get(42), is("d"));
+        assertThat(instance.get(1000), is("c"));
+        assertThat(instance.get(8), nullValue());
+        assertThat(instance.values(), contains("b", "d", "c"));
+    }
+
+    @Test
+    public void retainAll() {
+        IntObjectMap<String> instance = new IntObjectMap<>();
+        for (int i = 0; i < 100; i++) {
+            instance.put(i, "#" + i);
+        }
+        assertThat(instance.retainAll(new HashSet<>(Arrays.asList(3, 50, 99, 200))), is(true));
+        assertThat(instance.values(), contains("#3", "#50", "#99"));
+        assertThat(instance.retainAll(new HashSet<>(Arrays.asList(3, 50, 99))), is(false));
+        assertThat(instance.get(4), nullValue());
+        assertThat(instance.retainAll(Collections.<Integer>emptySet()), is(true));
+        assertThat(instance.isEmpty(), is(true));
+        assertThat(instance.put(5, "again"), nullValue());
+        assertThat(instance.get(5), is("again"));
+    }
+
+    /**
+     * Compares the retained heap of the boxed {@link HashMap} that used to back the pull request caches against
+     * the {@link IntObjectMap} that replaced it. The object graphs are walked rather than measured through the
+     * garbage collector so that the sizes are exact.
+     */
+    @Test
+    public void heapFootprint() {
+        final int count = 10000;
+        final Object value = new Object();
+        Map<Integer, Object> before = new HashMap<>();
+        IntObjectMap<Object> after = new IntObjectMap<>();
+        for (int i = 0; i < count; i++) {
+            before.put(i * 7, value);
+            after.put(i * 7, value);
+        }
+        long beforeBytes = GraphLayout.parseInstance(before).totalSize();
+        long afterBytes = GraphLayout.parseInstance(after).totalSize();
+        // a HashMap needs a node and a boxed key per entry, roughly 50 bytes, against at most 12 for the arrays
+        assertThat(afterBytes, lessThan(beforeBytes / 3));
+    }
+}
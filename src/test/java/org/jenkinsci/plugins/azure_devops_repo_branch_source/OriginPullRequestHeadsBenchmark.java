@@ -0,0 +1,95 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import org.kohsuke.github.GHPullRequest;
+import org.kohsuke.github.GHRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.jenkinsci.plugins.azure_devops_repo_branch_source.PullRequestFixtures.pullRequest;
+
+/**
+ * Compares matching every branch against every pull request with looking each branch up in
+ * {@link AzureDevOpsRepoSCMSourceRequest#indexOriginPullRequestHeads(Iterable)}. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.jenkinsci.plugins.azure_devops_repo_branch_source.OriginPullRequestHeadsBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OriginPullRequestHeadsBenchmark {
+
+    @Param({"500", "5000"})
+    public int branchCount;
+
+    @Param({"40", "400"})
+    public int pullRequestCount;
+
+    private List<String> branches;
+
+    private List<GHPullRequest> pullRequests;
+
+    @Setup
+    public void setUp() throws IOException {
+        branches = new ArrayList<>(branchCount);
+        for (int i = 0; i < branchCount; i++) {
+            branches.add("feature/branch-" + i);
+        }
+        pullRequests = new ArrayList<>(pullRequestCount);
+        for (int i = 0; i < pullRequestCount; i++) {
+            // every other pull request comes from a fork
+            pullRequests.add(pullRequest(i, "cloudbeers/yolo", i % 2 == 0 ? "cloudbeers/yolo" : "stephenc/yolo",
+                    "feature/branch-" + (i * 7 % branchCount)));
+        }
+    }
+
+    @Benchmark
+    public void scanPerBranch(Blackhole blackhole) {
+        for (String branch : branches) {
+            boolean found = false;
+            for (GHPullRequest p : pullRequests) {
+                GHRepository headRepo = p.getHead().getRepository();
+                if (headRepo != null
+                        && p.getBase().getRepository().getFullName().equalsIgnoreCase(headRepo.getFullName())
+                        && p.getHead().getRef().equals(branch)) {
+                    found = true;
+                    break;
+                }
+            }
+            blackhole.consume(found);
+        }
+    }
+
+    @Benchmark
+    public void indexOnce(Blackhole blackhole) {
+        Set<String> heads = AzureDevOpsRepoSCMSourceRequest.indexOriginPullRequestHeads(pullRequests);
+        for (String branch : branches) {
+            blackhole.consume(heads.contains(branch));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OriginPullRequestHeadsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,150 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class PrefetchingIterableTest {
+
+    @Test
+    public void preservesOrderAcrossPages() {
+        List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            source.add(i);
+        }
+        List<Integer> result = new ArrayList<>();
+        for (Integer i : new PrefetchingIterable<>(source, 30, 2)) {
+            result.add(i);
+        }
+        assertThat(result, is(source));
+    }
+
+    @Test
+    public void emptyDelegate() {
+        assertThat(new PrefetchingIterable<>(Collections.<String>emptyList(), 30, 2).iterator().hasNext(),
+                is(false));
+    }
+
+    @Test
+    public void failuresAreRethrownAfterTheElementsBeforeThem() {
+        Iterable<String> failing = new Iterable<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    int count;
+
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (count == 3) {
+                            throw new IllegalStateException("boom");
+                        }
+                        return "#" + count++;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+        Iterator<String> iterator = new PrefetchingIterable<>(failing, 1, 1).iterator();
+        assertThat(iterator.next(), is("#0"));
+        assertThat(iterator.next(), is("#1"));
+        assertThat(iterator.next(), is("#2"));
+        try {
+            iterator.next();
+            fail("expected the failure of the delegate");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("boom"));
+        }
+    }
+
+    @Test
+    public void readAheadIsBoundedAndStopsOnClose() throws Exception {
+        final AtomicInteger read = new AtomicInteger();
+        Iterable<Integer> endless = new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        return read.incrementAndGet();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+        PrefetchingIterable<Integer> instance = new PrefetchingIterable<>(endless, 10, 2);
+        Iterator<Integer> iterator = instance.iterator();
+        assertThat(iterator.next(), is(1));
+        Thread.sleep(500);
+        // the page being consumed, two buffered pages and the page waiting to be buffered
+        assertThat(read.get(), lessThanOrEqualTo(40));
+        instance.close();
+        Thread.sleep(1500);
+        int stopped = read.get();
+        Thread.sleep(500);
+        assertThat(read.get(), is(stopped));
+    }
+
+    @Test(timeout = 10000)
+    public void consumerStopsOnClose() {
+        Iterable<Integer> endless = new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new Iterator<Integer>() {
+                    int count;
+
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        return count++;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+        PrefetchingIterable<Integer> instance = new PrefetchingIterable<>(endless, 10, 2);
+        Iterator<Integer> iterator = instance.iterator();
+        assertThat(iterator.next(), is(0));
+        instance.close();
+        int remaining = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            remaining++;
+        }
+        // at most the rest of the page being consumed
+        assertThat(remaining, lessThanOrEqualTo(9));
+    }
+}
@@ -0,0 +1,47 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
+import org.kohsuke.github.GHPullRequest;
+
+import java.io.IOException;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+
+/**
+ * Detached pull requests for the tests and benchmarks that do not talk to GitHub.
+ */
+final class PullRequestFixtures {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setVisibility(new VisibilityChecker.Std(NONE, NONE, NONE, NONE, ANY))
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private PullRequestFixtures() {
+    }
+
+    /**
+     * Creates a detached pull request in the same way that the GitHub API would.
+     *
+     * @param number   the pull request number.
+     * @param baseRepo the full name of the base repository.
+     * @param headRepo the full name of the head repository or {@code null} if it has been deleted.
+     * @param headRef  the head branch name.
+     * @return the pull request.
+     * @throws IOException if the pull request could not be created.
+     */
+    static GHPullRequest pullRequest(int number, String baseRepo, String headRepo, String headRef)
+            throws IOException {
+        StringBuilder json = new StringBuilder()
+                .append("{\"number\":").append(number)
+                .append(",\"base\":{\"ref\":\"master\",\"repo\":{\"full_name\":\"").append(baseRepo).append("\"}}")
+                .append(",\"head\":{\"ref\":\"").append(headRef).append('"');
+        if (headRepo != null) {
+            json.append(",\"repo\":{\"full_name\":\"").append(headRepo).append("\"}");
+        }
+        json.append("}}");
+        return MAPPER.readValue(json.toString(), GHPullRequest.class);
+    }
+}
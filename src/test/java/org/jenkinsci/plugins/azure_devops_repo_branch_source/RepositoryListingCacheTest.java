@@ -0,0 +1,62 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RepositoryListingCacheTest {
+
+    @Before
+    public void clear() {
+        RepositoryListingCache.clear();
+    }
+
+    @Test
+    public void matchingPrefersPrefixes() {
+        Collection<String> names = Arrays.asList("api", "team-x-api", "team-x-web", "Team-y", "website");
+        assertThat(RepositoryListingCache.matching(names, "team", 10), contains("team-x-api", "team-x-web", "Team-y"));
+        assertThat(RepositoryListingCache.matching(names, "web", 10), contains("website", "team-x-web"));
+        assertThat(RepositoryListingCache.matching(names, "api", 1), contains("api"));
+        assertThat(RepositoryListingCache.matching(names, null, 2), contains("api", "team-x-api"));
+    }
+
+    @Test
+    public void listedOncePerOwner() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        RepositoryListingCache.Loader<Collection<String>> loader = new RepositoryListingCache.Loader<Collection<String>>() {
+            @Override
+            public Collection<String> load() throws IOException {
+                loads.incrementAndGet();
+                return Arrays.asList("yolo", "stunning-adventure");
+            }
+        };
+        assertThat(RepositoryListingCache.repositories(null, null, "cloudbeers", loader),
+                contains("yolo", "stunning-adventure"));
+        assertThat(RepositoryListingCache.repositories(null, null, "CloudBeers", loader),
+                contains("yolo", "stunning-adventure"));
+        assertThat(loads.get(), is(1));
+        RepositoryListingCache.repositories(null, null, "stephenc", loader);
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void missingOwnersAreNotRemembered() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        RepositoryListingCache.Loader<Collection<String>> loader = new RepositoryListingCache.Loader<Collection<String>>() {
+            @Override
+            public Collection<String> load() throws IOException {
+                loads.incrementAndGet();
+                return null;
+            }
+        };
+        assertThat(RepositoryListingCache.repositories(null, null, "does-not-exist", loader), nullValue());
+        assertThat(RepositoryListingCache.repositories(null, null, "does-not-exist", loader), nullValue());
+        assertThat(loads.get(), is(2));
+    }
+}
@@ -0,0 +1,157 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import hudson.util.StreamTaskListener;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import jenkins.scm.api.trait.SCMTrait;
+import jenkins.scm.impl.trait.RegexSCMSourceFilterTrait;
+import jenkins.scm.impl.trait.WildcardSCMSourceFilterTrait;
+import org.junit.Test;
+import org.kohsuke.github.GHOrganization;
+import org.kohsuke.github.GHRateLimit;
+import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GitHub;
+import org.mockito.Mockito;
+
+import static org.hamcrest.Matchers.*;
+import static org.jenkinsci.plugins.azure_devops_repo_branch_source.AzureDevOpsRepoSCMNavigatorRequestTest.newRequest;
+import static org.junit.Assert.assertThat;
+
+public class RepositoryQueryTest {
+
+    @Test
+    public void wildcardPrefix() {
+        assertThat(RepositoryQuery.nameOf(traits(new WildcardSCMSourceFilterTrait("team-x-*", ""))), is("team-x"));
+        assertThat(RepositoryQuery.nameOf(traits(new WildcardSCMSourceFilterTrait("team-x-api team-x-web", ""))),
+                is("team-x"));
+        assertThat(RepositoryQuery.nameOf(traits(new WildcardSCMSourceFilterTrait("team-x-api", ""))),
+                is("team-x-api"));
+    }
+
+    @Test
+    public void wildcardWithoutCompleteWordIsUnrestricted() {
+        assertThat(RepositoryQuery.nameOf(traits(new WildcardSCMSourceFilterTrait("*", ""))), nullValue());
+        assertThat(RepositoryQuery.nameOf(traits(new WildcardSCMSourceFilterTrait("team*", ""))), nullValue());
+        assertThat(RepositoryQuery.nameOf(traits(new WildcardSCMSourceFilterTrait("team-x-* other", ""))),
+                nullValue());
+    }
+
+    @Test
+    public void regexPrefix() {
+        assertThat(RepositoryQuery.nameOf(traits(new RegexSCMSourceFilterTrait("team-x-.*"))), is("team-x"));
+        assertThat(RepositoryQuery.nameOf(traits(new RegexSCMSourceFilterTrait("team-xy?-.*"))), is("team"));
+        assertThat(RepositoryQuery.nameOf(traits(new RegexSCMSourceFilterTrait("team-x-api"))), is("team-x-api"));
+        assertThat(RepositoryQuery.nameOf(traits(new RegexSCMSourceFilterTrait(".*"))), nullValue());
+        assertThat(RepositoryQuery.nameOf(traits(new RegexSCMSourceFilterTrait("team-a|team-b"))), nullValue());
+    }
+
+    @Test
+    public void notSearchingUnlessAsked() {
+        AzureDevOpsRepoSCMNavigatorContext context = new AzureDevOpsRepoSCMNavigatorContext();
+        assertThat(RepositoryQuery.of(newRequest(context),
+                traits(new WildcardSCMSourceFilterTrait("team-x-*", ""))), nullValue());
+    }
+
+    @Test
+    public void nothingToNarrowBy() {
+        AzureDevOpsRepoSCMNavigatorContext context = new AzureDevOpsRepoSCMNavigatorContext();
+        new RepositorySearchTrait("", "any", "any").applyToContext(context);
+        assertThat(RepositoryQuery.of(newRequest(context), traits()), nullValue());
+    }
+
+    @Test
+    public void onlySearchingForTopics() {
+        AzureDevOpsRepoSCMNavigatorContext context = new AzureDevOpsRepoSCMNavigatorContext();
+        new RepositorySearchTrait(null, "public", "forks").applyToContext(context);
+        assertThat(RepositoryQuery.of(newRequest(context),
+                traits(new WildcardSCMSourceFilterTrait("team-x-*", ""))), nullValue());
+    }
+
+    @Test
+    public void query() throws Exception {
+        AzureDevOpsRepoSCMNavigatorContext context = new AzureDevOpsRepoSCMNavigatorContext();
+        new RepositorySearchTrait("Jenkins, pipeline", "private", "any").applyToContext(context);
+        new ExcludeArchivedRepositoriesTrait().applyToContext(context);
+        RepositoryQuery query = RepositoryQuery.of(newRequest(context),
+                traits(new WildcardSCMSourceFilterTrait("team-x-*", "")));
+        assertThat(query, notNullValue());
+        assertThat(query.toQuery(organization("CloudBeers")),
+                is("team-x in:name org:CloudBeers topic:jenkins topic:pipeline is:private fork:true archived:false"));
+    }
+
+    @Test
+    public void queryForks() throws Exception {
+        AzureDevOpsRepoSCMNavigatorContext context = new AzureDevOpsRepoSCMNavigatorContext();
+        new RepositorySearchTrait("jenkins", "public", "forks").applyToContext(context);
+        RepositoryQuery query = RepositoryQuery.of(newRequest(context), traits());
+        assertThat(query, notNullValue());
+        assertThat(query.toQuery(organization("CloudBeers")), is("org:CloudBeers topic:jenkins is:public fork:only"));
+    }
+
+    @Test
+    public void matchesTopicsOfRepository() throws Exception {
+        AzureDevOpsRepoSCMNavigatorContext context = new AzureDevOpsRepoSCMNavigatorContext();
+        new RepositorySearchTrait("jenkins pipeline", "any", "any").applyToContext(context);
+        RepositoryQuery query = RepositoryQuery.of(newRequest(context), traits());
+        assertThat(query, notNullValue());
+        GHRepository repository = Mockito.mock(GHRepository.class);
+        Mockito.when(repository.listTopics()).thenReturn(Arrays.asList("Pipeline", "jenkins", "java"));
+        assertThat(query.matches(repository), is(true));
+        Mockito.when(repository.listTopics()).thenReturn(Collections.singletonList("jenkins"));
+        assertThat(query.matches(repository), is(false));
+    }
+
+    @Test
+    public void keepsExistingProjectsTheSearchHasNotPickedUp() throws Exception {
+        AzureDevOpsRepoSCMNavigatorContext context = new AzureDevOpsRepoSCMNavigatorContext();
+        new RepositorySearchTrait("jenkins", "any", "any").applyToContext(context);
+        RepositoryQuery query = RepositoryQuery.of(newRequest(context), traits());
+        assertThat(query, notNullValue());
+        GHRateLimit rateLimit = Mockito.mock(GHRateLimit.class);
+        rateLimit.limit = 5000;
+        rateLimit.remaining = 5000;
+        Mockito.when(rateLimit.getResetDate())
+                .thenReturn(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+        GitHub github = Mockito.mock(GitHub.class);
+        Mockito.when(github.rateLimit()).thenReturn(rateLimit);
+        GHRepository found = repository("found", "jenkins");
+        GHRepository lagging = repository("lagging", "jenkins");
+        GHRepository untagged = repository("untagged", "java");
+        Mockito.when(github.getRepository("CloudBeers/lagging")).thenReturn(lagging);
+        Mockito.when(github.getRepository("CloudBeers/untagged")).thenReturn(untagged);
+        Mockito.when(github.getRepository("CloudBeers/deleted")).thenThrow(new FileNotFoundException());
+        List<GHRepository> repositories = query.withExisting(github, organization("CloudBeers"),
+                Collections.singletonList(found), Arrays.asList("Found", "lagging", "untagged", "deleted"),
+                StreamTaskListener.fromStdout());
+        assertThat(repositories, contains(found, lagging));
+        // the repository returned by the search is not looked up again
+        Mockito.verify(github, Mockito.never()).getRepository("CloudBeers/Found");
+    }
+
+    private static GHRepository repository(String name, String... topics) throws IOException {
+        GHRepository repository = Mockito.mock(GHRepository.class);
+        Mockito.when(repository.getName()).thenReturn(name);
+        Mockito.when(repository.getOwnerName()).thenReturn("CloudBeers");
+        Mockito.when(repository.listTopics()).thenReturn(Arrays.asList(topics));
+        return repository;
+    }
+
+    private static List<SCMTrait<?>> traits(SCMTrait<?>... traits) {
+        return traits.length == 0 ? Collections.<SCMTrait<?>>emptyList() : Arrays.<SCMTrait<?>>asList(traits);
+    }
+
+    private static OwnerCache.Owner organization(String login) throws IOException {
+        GHOrganization organization = Mockito.mock(GHOrganization.class);
+        Mockito.when(organization.getLogin()).thenReturn(login);
+        try {
+            return OwnerCache.put(null, null, login, organization);
+        } finally {
+            OwnerCache.invalidate(null, null, login);
+        }
+    }
+}
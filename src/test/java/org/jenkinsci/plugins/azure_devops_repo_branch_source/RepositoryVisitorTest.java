@@ -0,0 +1,183 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.TaskListener;
+import hudson.util.StreamTaskListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import jenkins.scm.api.SCMNavigator;
+import jenkins.scm.api.SCMSource;
+import jenkins.scm.api.SCMSourceObserver;
+import jenkins.scm.api.SCMSourceOwner;
+import jenkins.scm.api.trait.SCMNavigatorRequest;
+import jenkins.scm.impl.NoOpProjectObserver;
+import org.junit.Before;
+import org.junit.Test;
+import org.kohsuke.github.GHRateLimit;
+import org.kohsuke.github.GitHub;
+import org.mockito.Mockito;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RepositoryVisitorTest {
+
+    private static final List<String> NAMES = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h");
+
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+    private final TaskListener listener = new StreamTaskListener(log, StandardCharsets.UTF_8);
+    /**
+     * The projects observed, which are observed from several threads at once when processing concurrently.
+     */
+    private final List<String> observed = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> witnessed = new ArrayList<>();
+    private volatile String completeAfter;
+    private volatile boolean observing = true;
+    private SCMNavigatorRequest request;
+    private GitHub github;
+
+    @Before
+    public void setUp() throws Exception {
+        SCMSourceObserver observer = new SCMSourceObserver() {
+            @NonNull
+            @Override
+            public SCMSourceOwner getContext() {
+                return Mockito.mock(SCMSourceOwner.class);
+            }
+
+            @NonNull
+            @Override
+            public TaskListener getListener() {
+                return listener;
+            }
+
+            @NonNull
+            @Override
+            public ProjectObserver observe(@NonNull String projectName) {
+                observed.add(projectName);
+                if (projectName.equals(completeAfter)) {
+                    observing = false;
+                }
+                return new NoOpProjectObserver();
+            }
+
+            @Override
+            public void addAttribute(@NonNull String key, @Nullable Object value) {
+            }
+
+            @Override
+            public boolean isObserving() {
+                return observing;
+            }
+        };
+        request = new AzureDevOpsRepoSCMNavigatorContext().newRequest(Mockito.mock(SCMNavigator.class), observer);
+        GHRateLimit rateLimit = Mockito.mock(GHRateLimit.class);
+        rateLimit.limit = 5000;
+        rateLimit.remaining = 5000;
+        Mockito.when(rateLimit.getResetDate())
+                .thenReturn(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+        github = Mockito.mock(GitHub.class);
+        Mockito.when(github.rateLimit()).thenReturn(rateLimit);
+    }
+
+    @Test
+    public void reportsInListingOrderWhenParallel() throws Exception {
+        RepositoryVisitor visitor = visitor(4, new SCMNavigatorRequest.SourceLambda() {
+            @NonNull
+            @Override
+            public SCMSource create(@NonNull String projectName) throws IOException, InterruptedException {
+                // the repositories found first take the longest
+                Thread.sleep(10L * (NAMES.size() - NAMES.indexOf(projectName)));
+                RepositoryVisitor.listenerOf(listener).getLogger().println("processed " + projectName);
+                return Mockito.mock(SCMSource.class);
+            }
+        });
+        try {
+            for (String name : NAMES) {
+                assertThat(visitor.visit(name, null), is(false));
+            }
+            assertThat(visitor.finish(), is(false));
+        } finally {
+            visitor.close();
+        }
+        assertThat(witnessed, is(NAMES));
+        assertThat(observed, containsInAnyOrder(NAMES.toArray()));
+        assertThat(new String(log.toByteArray(), StandardCharsets.UTF_8),
+                stringContainsInOrder(Arrays.asList("processed a", "processed b", "processed c", "processed d",
+                        "processed e", "processed f", "processed g", "processed h")));
+    }
+
+    @Test
+    public void stopsVisitingOnceCompleteWhenParallel() throws Exception {
+        completeAfter = "b";
+        RepositoryVisitor visitor = visitor(2, new SCMNavigatorRequest.SourceLambda() {
+            @NonNull
+            @Override
+            public SCMSource create(@NonNull String projectName) {
+                return Mockito.mock(SCMSource.class);
+            }
+        });
+        int visited = 0;
+        boolean completed;
+        try {
+            for (String name : NAMES) {
+                visited++;
+                if (visitor.visit(name, null)) {
+                    break;
+                }
+            }
+            completed = visitor.finish();
+        } finally {
+            visitor.close();
+        }
+        assertThat(completed, is(true));
+        // at most the repositories already queued when the request completed are processed after it
+        assertThat(visited, lessThan(NAMES.size()));
+        assertThat(witnessed.subList(0, 2), contains("a", "b"));
+    }
+
+    @Test
+    public void failureIsRethrownAfterEarlierRepositoriesWhenParallel() throws Exception {
+        RepositoryVisitor visitor = visitor(3, new SCMNavigatorRequest.SourceLambda() {
+            @NonNull
+            @Override
+            public SCMSource create(@NonNull String projectName) throws IOException {
+                if ("c".equals(projectName)) {
+                    throw new IOException("boom");
+                }
+                return Mockito.mock(SCMSource.class);
+            }
+        });
+        try {
+            for (String name : NAMES) {
+                visitor.visit(name, null);
+            }
+            visitor.finish();
+            fail("expected the failure of c");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("boom"));
+        } finally {
+            visitor.close();
+        }
+        assertThat(witnessed.size(), greaterThanOrEqualTo(2));
+        assertThat(witnessed.subList(0, 2), contains("a", "b"));
+    }
+
+    private RepositoryVisitor visitor(int parallelism, SCMNavigatorRequest.SourceLambda sourceFactory) {
+        return new RepositoryVisitor(request, sourceFactory, new SCMNavigatorRequest.Witness() {
+            @Override
+            public void record(@NonNull String projectName, boolean isMatch) {
+                witnessed.add(projectName);
+            }
+        }, github, listener, parallelism);
+    }
+}
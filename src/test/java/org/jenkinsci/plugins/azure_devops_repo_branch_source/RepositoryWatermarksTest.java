@@ -0,0 +1,151 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import jenkins.branch.MultiBranchProjectFactory;
+import jenkins.branch.OrganizationFolder;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadObserver;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.trait.SCMTrait;
+import jenkins.scm.impl.trait.WildcardSCMSourceFilterTrait;
+import org.jenkinsci.plugins.workflow.multibranch.WorkflowMultiBranchProjectFactory;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.kohsuke.github.GHRepository;
+import org.mockito.Mockito;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class RepositoryWatermarksTest {
+    @ClassRule
+    public static JenkinsRule r = new JenkinsRule();
+
+    private static int folders;
+
+    private final TaskListener listener = TaskListener.NULL;
+    private final List<SCMTrait<?>> traits =
+            Collections.<SCMTrait<?>>singletonList(new WildcardSCMSourceFilterTrait("*", ""));
+    private OrganizationFolder owner;
+    private Map<SCMHead, SCMRevision> heads;
+
+    @Before
+    public void setUp() throws Exception {
+        owner = r.jenkins.createProject(OrganizationFolder.class, "org" + folders++);
+        SCMHead master = new SCMHead("master");
+        heads = Collections.<SCMHead, SCMRevision>singletonMap(master,
+                new AbstractGitSCMSource.SCMRevisionImpl(master, "8f1314fc3c8284d8c6d5886d473db98f2126071c"));
+    }
+
+    @Test
+    public void unchangedRepositoryIsReplayed() throws Exception {
+        RepositoryWatermarks watermarks = RepositoryWatermarks.load(owner, "navigator", traits);
+        assertThat(fetch(watermarks, repository("yolo", 1L), heads), is(false));
+        SCMHeadObserver.Collector collector = SCMHeadObserver.collect();
+        RepositoryWatermarks.Recognition recognition = watermarks.recognize(repository("yolo", 1L), "source");
+        recognition.enter();
+        try {
+            assertThat(recognition.replay(collector, listener), is(true));
+        } finally {
+            recognition.exit(true);
+        }
+        assertThat(collector.result(), is(heads));
+    }
+
+    @Test
+    public void pushedRepositoryIsRescanned() throws Exception {
+        RepositoryWatermarks watermarks = RepositoryWatermarks.load(owner, "navigator", traits);
+        assertThat(fetch(watermarks, repository("yolo", 1L), heads), is(false));
+        assertThat(fetch(watermarks, repository("yolo", 2L), heads), is(false));
+        // the heads observed after the push are replayed from then on
+        assertThat(fetch(watermarks, repository("yolo", 2L), heads), is(true));
+    }
+
+    @Test
+    public void configChangeInvalidates() throws Exception {
+        RepositoryWatermarks watermarks = RepositoryWatermarks.load(owner, "navigator", traits);
+        assertThat(fetch(watermarks, repository("yolo", 1L), heads), is(false));
+        watermarks.save();
+        assertThat(fetch(RepositoryWatermarks.load(owner, "navigator", traits), repository("yolo", 1L), heads),
+                is(true));
+        List<SCMTrait<?>> changed =
+                Collections.<SCMTrait<?>>singletonList(new WildcardSCMSourceFilterTrait("yolo*", ""));
+        assertThat(fetch(RepositoryWatermarks.load(owner, "navigator", changed), repository("yolo", 1L), heads),
+                is(false));
+    }
+
+    @Test
+    public void configDigestCoversProjectFactoriesOnly() throws Exception {
+        owner.getProjectFactories().replaceBy(Collections.<MultiBranchProjectFactory>emptyList());
+        String digest = RepositoryWatermarks.configDigestOf(owner, traits);
+        owner.setDescription("unrelated");
+        assertThat(RepositoryWatermarks.configDigestOf(owner, traits), is(digest));
+        owner.getProjectFactories().add(new WorkflowMultiBranchProjectFactory());
+        assertThat(RepositoryWatermarks.configDigestOf(owner, traits), not(digest));
+    }
+
+    @Test
+    public void severalFetchesDropTheEntry() throws Exception {
+        RepositoryWatermarks watermarks = RepositoryWatermarks.load(owner, "navigator", traits);
+        assertThat(fetch(watermarks, repository("yolo", 1L), heads), is(false));
+        RepositoryWatermarks.Recognition recognition = watermarks.recognize(repository("yolo", 1L), "source");
+        recognition.enter();
+        try {
+            assertThat(recognition.replay(SCMHeadObserver.collect(), listener), is(true));
+            // asked again, possibly with different criteria, so the source has to list the heads itself
+            assertThat(recognition.replay(SCMHeadObserver.collect(), listener), is(false));
+            recognition.recorded(heads);
+        } finally {
+            recognition.exit(true);
+        }
+        assertThat(fetch(watermarks, repository("yolo", 1L), heads), is(false));
+    }
+
+    @Test
+    public void retainAllAfterFullListing() throws Exception {
+        RepositoryWatermarks watermarks = RepositoryWatermarks.load(owner, "navigator", traits);
+        assertThat(fetch(watermarks, repository("yolo", 1L), heads), is(false));
+        assertThat(fetch(watermarks, repository("deleted", 1L), heads), is(false));
+        watermarks.retainAll(Arrays.asList("YOLO"));
+        assertThat(fetch(watermarks, repository("yolo", 1L), heads), is(true));
+        assertThat(fetch(watermarks, repository("deleted", 1L), heads), is(false));
+    }
+
+    /**
+     * Recognizes a repository the way the navigator does, recording the supplied heads unless they are replayed.
+     *
+     * @return {@code true} if the heads were replayed.
+     */
+    private boolean fetch(RepositoryWatermarks watermarks, GHRepository repository, Map<SCMHead, SCMRevision> heads)
+            throws Exception {
+        RepositoryWatermarks.Recognition recognition = watermarks.recognize(repository, "source");
+        recognition.enter();
+        try {
+            if (recognition.replay(SCMHeadObserver.collect(), listener)) {
+                return true;
+            }
+            recognition.recorded(heads);
+            return false;
+        } finally {
+            recognition.exit(true);
+        }
+    }
+
+    private static GHRepository repository(String name, long pushed) throws IOException {
+        GHRepository repository = Mockito.mock(GHRepository.class);
+        Mockito.when(repository.getName()).thenReturn(name);
+        Mockito.when(repository.getId()).thenReturn(42L);
+        Mockito.when(repository.getPushedAt()).thenReturn(new Date(pushed));
+        Mockito.when(repository.getUpdatedAt()).thenReturn(new Date(1L));
+        return repository;
+    }
+}
@@ -0,0 +1,93 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import hudson.XmlFile;
+import jenkins.scm.api.SCMFile;
+import jenkins.scm.api.SCMProbe;
+import jenkins.scm.api.SCMProbeStat;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ScanCheckpointTest {
+
+    private static final String HASH = "8f5a4b8a7e8b4d0c1f6a2b3c4d5e6f708192a3b4";
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private XmlFile file() throws IOException {
+        return new XmlFile(ScanCheckpoint.XSTREAM, new File(tmp.getRoot(), "checkpoint.xml"));
+    }
+
+    @Test
+    public void given__interruptedScan__when__resuming__then__probesReplayed() throws Exception {
+        CountingProbe first = new CountingProbe();
+        ScanCheckpoint instance = new ScanCheckpoint(file());
+        SCMProbe probe = instance.probe(HASH, first);
+        assertThat(probe.stat("Jenkinsfile").getType(), is(SCMFile.Type.REGULAR_FILE));
+        assertThat(probe.stat("README.md").getAlternativePath(), is("readme.md"));
+        assertThat(probe.lastModified(), is(1234L));
+        instance.save();
+        assertThat(first.calls, is(3));
+
+        CountingProbe second = new CountingProbe();
+        probe = new ScanCheckpoint(file()).probe(HASH, second);
+        assertThat(probe.stat("Jenkinsfile").getType(), is(SCMFile.Type.REGULAR_FILE));
+        assertThat(probe.stat("README.md").getAlternativePath(), is("readme.md"));
+        assertThat(probe.lastModified(), is(1234L));
+        assertThat(second.calls, is(0));
+        assertThat(probe.stat("pom.xml").getType(), is(SCMFile.Type.NONEXISTENT));
+        assertThat(second.calls, is(1));
+    }
+
+    @Test
+    public void given__completedScan__when__scanningAgain__then__probesRepeated() throws Exception {
+        ScanCheckpoint instance = new ScanCheckpoint(file());
+        instance.probe(HASH, new CountingProbe()).stat("Jenkinsfile");
+        instance.save();
+        instance.complete();
+        assertThat(file().exists(), is(false));
+
+        CountingProbe probe = new CountingProbe();
+        new ScanCheckpoint(file()).probe(HASH, probe).stat("Jenkinsfile");
+        assertThat(probe.calls, is(1));
+    }
+
+    private static class CountingProbe extends SCMProbe {
+        private int calls;
+
+        @Override
+        public String name() {
+            return "master";
+        }
+
+        @Override
+        public long lastModified() {
+            calls++;
+            return 1234L;
+        }
+
+        @Override
+        public SCMProbeStat stat(String path) throws IOException {
+            calls++;
+            switch (path) {
+                case "Jenkinsfile":
+                    return SCMProbeStat.fromType(SCMFile.Type.REGULAR_FILE);
+                case "README.md":
+                    return SCMProbeStat.fromAlternativePath("readme.md");
+                default:
+                    return SCMProbeStat.fromType(SCMFile.Type.NONEXISTENT);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+}
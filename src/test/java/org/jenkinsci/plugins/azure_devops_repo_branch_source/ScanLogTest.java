@@ -0,0 +1,73 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import hudson.util.StreamTaskListener;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class ScanLogTest {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    private String log() {
+        return new String(bytes.toByteArray(), Charset.defaultCharset());
+    }
+
+    private void scan(ScanLog instance) {
+        instance.head("branch", "https://github.com/cloudbeers/yolo/tree/master", "master");
+        instance.outcome(true);
+        instance.done();
+        instance.head("branch", "https://github.com/cloudbeers/yolo/tree/wip", "wip");
+        instance.outcome(false);
+        instance.done();
+        instance.head("pull request", "https://github.com/cloudbeers/yolo/pull/2", "#2");
+        instance.detail("      Not mergeable, build likely to fail", true);
+        instance.outcome(true);
+        instance.done();
+        instance.head("pull request", "https://github.com/cloudbeers/yolo/pull/3", "#3");
+        instance.skipped("    Submitted from fork, skipping");
+        instance.summary("%n  %d heads were processed%n", 3);
+    }
+
+    @Test
+    public void given__verbose__when__scanning__then__everyHeadLogged() throws Exception {
+        ScanLog instance = new ScanLog(new StreamTaskListener(bytes), false);
+        scan(instance);
+        instance.flush();
+        String log = log();
+        assertThat(log, containsString("master"));
+        assertThat(log, containsString("wip"));
+        assertThat(log, containsString("#2"));
+        assertThat(log, containsString("Submitted from fork, skipping"));
+        assertThat(log, containsString("3 heads were processed"));
+        assertThat(log, not(containsString("met criteria,")));
+    }
+
+    @Test
+    public void given__compact__when__scanning__then__onlyHeadsNeedingAttentionLogged() throws Exception {
+        ScanLog instance = new ScanLog(new StreamTaskListener(bytes), true);
+        scan(instance);
+        instance.flush();
+        String log = log();
+        assertThat(log, not(containsString("master")));
+        assertThat(log, containsString("wip"));
+        assertThat(log, containsString("Does not meet criteria"));
+        assertThat(log, containsString("#2"));
+        assertThat(log, containsString("Not mergeable, build likely to fail"));
+        assertThat(log, not(containsString("#3")));
+        assertThat(log, containsString("3 heads were processed"));
+        assertThat(log, containsString("(2 met criteria, 1 did not meet criteria, 1 skipped)"));
+    }
+
+    @Test
+    public void given__compact__when__headFails__then__headLogged() throws Exception {
+        ScanLog instance = new ScanLog(new StreamTaskListener(bytes), true);
+        instance.head("tag", "https://github.com/cloudbeers/yolo/tree/v1.0", "v1.0");
+        instance.flush();
+        assertThat(log(), allOf(containsString("v1.0"), containsString("Could not be checked")));
+    }
+}
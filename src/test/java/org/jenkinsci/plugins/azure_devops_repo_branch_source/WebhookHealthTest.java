@@ -0,0 +1,141 @@
+package org.jenkinsci.plugins.azure_devops_repo_branch_source;
+
+import com.cloudbees.jenkins.GitHubRepositoryName;
+import hudson.model.TaskListener;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import jenkins.plugins.git.AbstractGitSCMSource;
+import jenkins.scm.api.SCMHead;
+import jenkins.scm.api.SCMHeadEvent;
+import jenkins.scm.api.SCMHeadObserver;
+import jenkins.scm.api.SCMRevision;
+import jenkins.scm.api.trait.SCMSourceTrait;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.mockito.Mockito;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class WebhookHealthTest {
+    /**
+     * Only used for the extensions that saving a source needs.
+     */
+    @ClassRule
+    public static JenkinsRule r = new JenkinsRule();
+
+    private static int repositories;
+
+    private final TaskListener listener = TaskListener.NULL;
+    private final SCMHead master = new SCMHead("master");
+    private final SCMHead feature = new SCMHead("feature");
+    private String repository;
+    private AzureDevOpsRepoSCMSource source;
+    private Map<SCMHead, SCMRevision> heads;
+
+    @Before
+    public void setUp() {
+        // deliveries are kept for the life of the JVM, so every test gets a repository of its own
+        repository = "yolo-" + repositories++;
+        source = new AzureDevOpsRepoSCMSource("cloudbeers", repository);
+        heads = new LinkedHashMap<>();
+        heads.put(master, revision(master, "8f1314fc3c8284d8c6d5886d473db98f2126071c"));
+        heads.put(feature, revision(feature, "c0e024f89969b976da165eecaa71e09dc60c3da1"));
+    }
+
+    @Test
+    public void healthyOnceDelivered() {
+        long now = System.currentTimeMillis();
+        assertThat(WebhookHealth.canSkipScan(null, "cloudbeers", repository, now), is(false));
+        delivered();
+        assertThat(WebhookHealth.canSkipScan(null, "CloudBeers", repository.toUpperCase(), now), is(true));
+        assertThat(WebhookHealth.canSkipScan("https://ghe.example.com/api/v3", "cloudbeers", repository, now),
+                is(false));
+        // the periodic scans are only stretched so far
+        assertThat(WebhookHealth.canSkipScan(null, "cloudbeers", repository, now - TimeUnit.DAYS.toMillis(1)),
+                is(false));
+    }
+
+    @Test
+    public void notPeriodicOutsideOfAnExecutor() {
+        assertThat(WebhookHealth.isPeriodicScan(), is(false));
+    }
+
+    @Test
+    public void periodicScanReplayedWhileHealthy() throws Exception {
+        source.recordObservedHeads(null, SCMHeadObserver.collect(), heads);
+        assertThat(replay(true), nullValue());
+        delivered();
+        assertThat(replay(true), is(heads));
+    }
+
+    @Test
+    public void manualScanNotReplayed() throws Exception {
+        source.recordObservedHeads(null, SCMHeadObserver.collect(), heads);
+        delivered();
+        assertThat(replay(false), nullValue());
+    }
+
+    @Test
+    public void notReplayedAfterSetTraits() throws Exception {
+        source.recordObservedHeads(null, SCMHeadObserver.collect(), heads);
+        delivered();
+        source.setTraits(Collections.<SCMSourceTrait>singletonList(new BranchDiscoveryTrait(true, false)));
+        assertThat(replay(true), nullValue());
+    }
+
+    @Test
+    public void notReplayedAfterSave() throws Exception {
+        source.recordObservedHeads(null, SCMHeadObserver.collect(), heads);
+        delivered();
+        source.afterSave();
+        assertThat(replay(true), nullValue());
+    }
+
+    @Test
+    public void eventWithIncludesIsMerged() throws Exception {
+        source.recordObservedHeads(null, SCMHeadObserver.collect(), heads);
+        delivered();
+        SCMRevision pushed = revision(feature, "3dca54e3c4e3ba3b2c1a1c2e5d5d9f1f0f0e4e2a");
+        source.recordObservedHeads(Mockito.mock(SCMHeadEvent.class), SCMHeadObserver.select(feature),
+                Collections.singletonMap(feature, pushed));
+        Map<SCMHead, SCMRevision> expected = new LinkedHashMap<>(heads);
+        expected.put(feature, pushed);
+        assertThat(replay(true), is(expected));
+        // an included head that the event no longer observes has been deleted
+        source.recordObservedHeads(Mockito.mock(SCMHeadEvent.class), SCMHeadObserver.select(feature),
+                Collections.<SCMHead, SCMRevision>emptyMap());
+        assertThat(replay(true), is(Collections.singletonMap(master, heads.get(master))));
+    }
+
+    @Test
+    public void eventWithoutIncludesResets() throws Exception {
+        source.recordObservedHeads(null, SCMHeadObserver.collect(), heads);
+        delivered();
+        source.recordObservedHeads(Mockito.mock(SCMHeadEvent.class), SCMHeadObserver.collect(),
+                Collections.singletonMap(master, heads.get(master)));
+        assertThat(replay(true), nullValue());
+    }
+
+    private void delivered() {
+        WebhookHealth.delivered(new GitHubRepositoryName("github.com", "cloudbeers", repository));
+    }
+
+    /**
+     * Asks the source to replay its last full scan.
+     *
+     * @return the heads replayed or {@code null} if a full scan is needed.
+     */
+    private Map<SCMHead, SCMRevision> replay(boolean periodic) throws Exception {
+        SCMHeadObserver.Collector collector = SCMHeadObserver.collect();
+        return source.replayLastFullScan(collector, listener, periodic) ? collector.result() : null;
+    }
+
+    private static SCMRevision revision(SCMHead head, String hash) {
+        return new AbstractGitSCMSource.SCMRevisionImpl(head, hash);
+    }
+}